@@ -0,0 +1,54 @@
+package com.gestioneventos.cofira.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de CPU de la autenticación JWT por petición en AuthTokenFilter.
+ * <ul>
+ *     <li>legacyTriplePass: validar + obtener jti + obtener username, reconstruyendo clave y parser en cada llamada.</li>
+ *     <li>verifyAndDecode: una única verificación con la clave y el parser construidos al arrancar.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET =
+            "f5a0cce32ea6a14fa700fa932d20769c53494a9088c588273fc554ede6599cfc6140e4fbd48417d5656d50af1ef35a5d7eefc75394a8b399457556f4db6ec1d2";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 86400000);
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "benchuser", "bench@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @Benchmark
+    public void legacyTriplePass(Blackhole bh) {
+        bh.consume(Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token));
+        bh.consume(Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getId());
+        bh.consume(Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    @Benchmark
+    public JwtClaims verifyAndDecode() {
+        return jwtUtils.verifyAndDecode(token).orElseThrow();
+    }
+}
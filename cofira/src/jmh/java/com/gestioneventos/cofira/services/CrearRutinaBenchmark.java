@@ -0,0 +1,86 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.entities.*;
+import com.gestioneventos.cofira.enums.DiaSemana;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de persistir una rutina de alimentación completa (7 días, 35 comidas y 105 alimentos) sobre H2.
+ * <ul>
+ *     <li>loteJdbc=0: una sentencia por fila, que es lo que ocurría con ids IDENTITY.</li>
+ *     <li>loteJdbc=50: ids por secuencia en bloques de 50 y INSERT agrupados por tabla.</li>
+ * </ul>
+ * H2 en memoria no tiene latencia de red, así que la diferencia con PostgreSQL real es mayor que la medida aquí.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CrearRutinaBenchmark {
+
+    @Param({"0", "50"})
+    private int loteJdbc;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(RutinaAlimentacion.class)
+                .addAnnotatedClass(DiaAlimentacion.class)
+                .addAnnotatedClass(Desayuno.class)
+                .addAnnotatedClass(Almuerzo.class)
+                .addAnnotatedClass(Comida.class)
+                .addAnnotatedClass(Merienda.class)
+                .addAnnotatedClass(Cena.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:rutinas-" + loteJdbc + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", String.valueOf(loteJdbc))
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Long crearRutina() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            RutinaAlimentacion rutina = crearRutinaCompleta();
+            session.persist(rutina);
+            tx.commit();
+            return rutina.getId();
+        }
+    }
+
+    private RutinaAlimentacion crearRutinaCompleta() {
+        List<DiaAlimentacion> dias = new ArrayList<>();
+        for (DiaSemana diaSemana : DiaSemana.values()) {
+            DiaAlimentacion dia = new DiaAlimentacion();
+            dia.setDiaSemana(diaSemana);
+            dia.setDesayuno(Desayuno.builder().alimentos(List.of("avena", "leche", "fruta")).build());
+            dia.setAlmuerzo(Almuerzo.builder().alimentos(List.of("yogur", "nueces", "miel")).build());
+            dia.setComida(Comida.builder().alimentos(List.of("arroz", "pollo", "ensalada")).build());
+            dia.setMerienda(Merienda.builder().alimentos(List.of("tostada", "aguacate", "huevo")).build());
+            dia.setCena(Cena.builder().alimentos(List.of("pescado", "verduras", "patata")).build());
+            dias.add(dia);
+        }
+        RutinaAlimentacion rutina = new RutinaAlimentacion();
+        rutina.setFechaInicio(LocalDate.of(2025, 1, 6));
+        rutina.setDiasAlimentacion(dias);
+        return rutina;
+    }
+}
@@ -0,0 +1,144 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.auth.AuthResponseDTO;
+import com.gestioneventos.cofira.dto.auth.RegisterRequestDTO;
+import com.gestioneventos.cofira.entities.*;
+import com.gestioneventos.cofira.enums.Rol;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.JwtUtils;
+import com.gestioneventos.cofira.security.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throughput de alta de usuarios sobre H2, con el encoder BCrypt real, el INSERT y la emisión del JWT.
+ * <ul>
+ *     <li>registroAnterior: el flujo previo reproducido con las mismas piezas: dos SELECT de existencia, hash,
+ *     INSERT y login() (recarga del usuario y segunda verificación BCrypt) antes de emitir el JWT.</li>
+ *     <li>registro: {@link AuthService#register} tal cual, con un único hash y un único INSERT.</li>
+ * </ul>
+ * H2 en memoria no tiene latencia de red, así que los SELECT que se ahorran pesan más en PostgreSQL real.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RegistroBenchmark {
+
+    private static final String PASSWORD = "Contraseña-de-prueba-123";
+    private static final String JWT_SECRET = "clave-de-benchmark-con-al-menos-256-bits-para-hs256-0123456789";
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private UsuarioRepository usuarioRepository;
+    private PasswordEncoder passwordEncoder;
+    private JwtUtils jwtUtils;
+    private AuthService authService;
+    private long secuencia;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Usuario.class)
+                .addAnnotatedClass(Objetivos.class)
+                .addAnnotatedClass(Plan.class)
+                .addAnnotatedClass(RutinaAlimentacion.class)
+                .addAnnotatedClass(DiaAlimentacion.class)
+                .addAnnotatedClass(Desayuno.class)
+                .addAnnotatedClass(Almuerzo.class)
+                .addAnnotatedClass(Comida.class)
+                .addAnnotatedClass(Merienda.class)
+                .addAnnotatedClass(Cena.class)
+                .addAnnotatedClass(RutinaEjercicio.class)
+                .addAnnotatedClass(DiaEjercicio.class)
+                .addAnnotatedClass(Ejercicios.class)
+                .addAnnotatedClass(SalaDeGimnasio.class)
+                .addAnnotatedClass(Alimento.class)
+                .addAnnotatedClass(TokenRevocado.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:registro;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        usuarioRepository = new JpaRepositoryFactory(entityManager).getRepository(UsuarioRepository.class);
+        passwordEncoder = new BCryptPasswordEncoder();
+        jwtUtils = new JwtUtils(JWT_SECRET, 3_600_000);
+
+        authService = new AuthService();
+        DirectFieldAccessor campos = new DirectFieldAccessor(authService);
+        campos.setPropertyValue("usuarioRepository", usuarioRepository);
+        campos.setPropertyValue("passwordEncoder", passwordEncoder);
+        campos.setPropertyValue("jwtUtils", jwtUtils);
+        campos.setPropertyValue("usuarioExistenciaIndex", new UsuarioExistenciaIndex(usuarioRepository, 100_000, 0.01));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public String registroAnterior() {
+        RegisterRequestDTO request = nuevaPeticion();
+        return enTransaccion(() -> {
+            if (usuarioRepository.existsByUsername(request.getUsername())
+                    || usuarioRepository.existsByEmail(request.getEmail())) {
+                throw new IllegalStateException("Usuario duplicado");
+            }
+            usuarioRepository.save(Usuario.builder()
+                    .nombre(request.getNombre())
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(passwordEncoder.encode(request.getPassword()))
+                    .rol(Rol.USER)
+                    .build());
+
+            // login(): el AuthenticationManager recargaba el usuario y volvía a verificar la contraseña
+            Usuario usuario = usuarioRepository.findByUsername(request.getUsername()).orElseThrow();
+            if (!passwordEncoder.matches(request.getPassword(), usuario.getPassword())) {
+                throw new IllegalStateException("Credenciales no válidas");
+            }
+            return jwtUtils.generateJwtToken(UserDetailsImpl.build(usuario));
+        });
+    }
+
+    @Benchmark
+    public AuthResponseDTO registro() {
+        RegisterRequestDTO request = nuevaPeticion();
+        return enTransaccion(() -> authService.register(request));
+    }
+
+    private RegisterRequestDTO nuevaPeticion() {
+        long n = secuencia++;
+        RegisterRequestDTO request = new RegisterRequestDTO();
+        request.setNombre("Usuario " + n);
+        request.setUsername("usuario" + n);
+        request.setEmail("usuario" + n + "@example.com");
+        request.setPassword(PASSWORD);
+        return request;
+    }
+
+    // Fuera de Spring no hay proxy transaccional: cada alta se confirma aquí y se vacía el contexto de persistencia
+    private <T> T enTransaccion(Supplier<T> alta) {
+        entityManager.getTransaction().begin();
+        try {
+            T resultado = alta.get();
+            entityManager.getTransaction().commit();
+            return resultado;
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.clear();
+        }
+    }
+}
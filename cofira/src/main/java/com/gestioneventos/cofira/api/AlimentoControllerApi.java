@@ -1,15 +1,24 @@
 package com.gestioneventos.cofira.api;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
 import com.gestioneventos.cofira.dto.alimento.CrearAlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.ImportacionAlimentosDTO;
 import com.gestioneventos.cofira.dto.alimento.ModificarAlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.SugerenciaAlimentoDTO;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,15 +32,54 @@ import jakarta.validation.Valid;
 @Tag(name = "Alimentos", description = "API para gestión de alimentos")
 public interface AlimentoControllerApi {
 
-    @Operation(summary = "Listar todos los alimentos", 
-               description = "Obtiene una lista de todos los alimentos disponibles. Opcionalmente se puede filtrar por nombre.")
+    @Operation(summary = "Listar alimentos",
+               description = "Obtiene una lista paginada de alimentos (por defecto 20 por página ordenados por id, máximo 100) "
+                   + "con filtro opcional por nombre.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de alimentos obtenida exitosamente",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class)))
+    })
+    ResponseEntity<Page<AlimentoDTO>> listarAlimentos(
+        @Parameter(description = "Nombre del alimento para filtrar (opcional)", required = false)
+        @RequestParam(required = false) String nombre,
+        @ParameterObject Pageable pageable);
+
+    @Operation(summary = "Buscar alimentos por nombre",
+               description = "Devuelve los alimentos cuyo nombre contiene el término, ordenados por parecido con él")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Alimentos encontrados",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = AlimentoDTO.class)))
     })
-    ResponseEntity<List<AlimentoDTO>> listarAlimentos(
-        @Parameter(description = "Nombre del alimento para filtrar (opcional)", required = false) 
-        @RequestParam(required = false) String nombre);
+    ResponseEntity<List<AlimentoDTO>> buscarAlimentos(
+        @Parameter(description = "Término a buscar en el nombre", required = true) @RequestParam("q") String termino,
+        @Parameter(description = "Máximo de resultados (por defecto 20, máximo 100)", required = false)
+        @RequestParam(required = false) Integer limite);
+
+    @Operation(summary = "Autocompletar alimentos",
+               description = "Sugerencias mientras se escribe: alimentos cuyo nombre o ingredientes tienen palabras que empiezan "
+                   + "por cada palabra de la consulta, sin distinguir mayúsculas ni tildes. Primero las coincidencias por nombre.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas exitosamente",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SugerenciaAlimentoDTO.class)))
+    })
+    ResponseEntity<List<SugerenciaAlimentoDTO>> autocompletarAlimentos(
+        @Parameter(description = "Texto escrito hasta ahora", required = true) @RequestParam("q") String consulta,
+        @Parameter(description = "Máximo de sugerencias (por defecto 10, máximo 50)", required = false)
+        @RequestParam(required = false) Integer limite);
+
+    @Operation(summary = "Listar alimentos seguros para unas alergias",
+               description = "Lista paginada (por defecto 20 por página, máximo 100, ordenada por id; no admite otro orden) de los alimentos del "
+                   + "catálogo que no contienen ningún ingrediente de la lista de alergias, sin distinguir mayúsculas ni "
+                   + "tildes. Si no se indican alergias se usan las del usuario autenticado.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de alimentos seguros obtenida exitosamente",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
+        @ApiResponse(responseCode = "400", description = "Orden no admitido (solo sort=id,asc)", content = @Content)
+    })
+    ResponseEntity<Page<AlimentoDTO>> listarAlimentosSeguros(
+        @Parameter(description = "Ingredientes a excluir (opcional, por defecto las alergias del usuario)", required = false)
+        @RequestParam(required = false) List<String> alergias,
+        @ParameterObject Pageable pageable);
 
     @Operation(summary = "Obtener alimento por ID", description = "Obtiene los detalles de un alimento específico")
     @ApiResponses(value = {
@@ -51,6 +99,19 @@ public interface AlimentoControllerApi {
     ResponseEntity<AlimentoDTO> crearAlimento(
         @Parameter(description = "Datos del alimento a crear", required = true) @RequestBody @Valid CrearAlimentoDTO dto);
 
+    @Operation(summary = "Importar alimentos en bloque",
+        description = "Crea alimentos a partir de un CSV (cabecera nombre[,ingredientes], con los ingredientes separados por ';') "
+            + "o de un NDJSON (un CrearAlimentoDTO por línea). El fichero se procesa en streaming, se parsea en paralelo y se "
+            + "inserta por lotes; los nombres ya existentes (sin distinguir mayúsculas ni tildes) se omiten como duplicados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación completada (puede incluir filas rechazadas)",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportacionAlimentosDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Formato o cabecera no válidos", content = @Content)
+    })
+    ResponseEntity<ImportacionAlimentosDTO> importarAlimentos(
+        @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        @Parameter(description = "Contenido CSV o NDJSON", required = true) InputStream cuerpo) throws IOException;
+
     @Operation(summary = "Actualizar un alimento", description = "Actualiza la información de un alimento existente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Alimento actualizado exitosamente",
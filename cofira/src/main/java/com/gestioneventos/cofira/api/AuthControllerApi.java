@@ -64,4 +64,13 @@ public interface AuthControllerApi {
     ResponseEntity<?> logout(
         @Parameter(description = "Token de autorización en el formato: Bearer {token}", required = true)
         @RequestHeader("Authorization") String authHeader);
+
+    @Operation(summary = "Cerrar todas las sesiones",
+               description = "Invalida todos los tokens emitidos hasta ahora para el usuario actual, en cualquier dispositivo",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sesiones cerradas", content = @Content),
+        @ApiResponse(responseCode = "401", description = "No autenticado", content = @Content)
+    })
+    ResponseEntity<?> logoutAll();
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.gestioneventos.cofira.dto.ejercicios.CrearEjerciciosDTO;
 import com.gestioneventos.cofira.dto.ejercicios.EjerciciosDTO;
@@ -22,12 +23,17 @@ import jakarta.validation.Valid;
 @Tag(name = "Ejercicios", description = "API para gestión de ejercicios")
 public interface EjerciciosControllerApi {
 
-    @Operation(summary = "Listar todos los ejercicios", description = "Obtiene una lista de todos los ejercicios disponibles")
+    @Operation(summary = "Listar todos los ejercicios",
+               description = "Obtiene una lista de todos los ejercicios disponibles. Opcionalmente se puede buscar por nombre.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de ejercicios obtenida exitosamente",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = EjerciciosDTO.class)))
     })
-    ResponseEntity<List<EjerciciosDTO>> listarEjercicios();
+    ResponseEntity<List<EjerciciosDTO>> listarEjercicios(
+        @Parameter(description = "Nombre del ejercicio a buscar (opcional)", required = false)
+        @RequestParam(required = false) String nombre,
+        @Parameter(description = "Máximo de resultados al buscar por nombre, ordenados por parecido (por defecto 20, máximo 100)", required = false)
+        @RequestParam(required = false) Integer limite);
 
     @Operation(summary = "Obtener ejercicio por ID", description = "Obtiene los detalles de un ejercicio específico")
     @ApiResponses(value = {
@@ -1,17 +1,28 @@
 package com.gestioneventos.cofira.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.gestioneventos.cofira.dto.usuario.CrearUsuarioDTO;
+import com.gestioneventos.cofira.dto.usuario.EstadisticasUsuariosDTO;
+import com.gestioneventos.cofira.dto.usuario.ImportacionUsuariosDTO;
 import com.gestioneventos.cofira.dto.usuario.ModificarUsuarioDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioDetalleDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO;
+import com.gestioneventos.cofira.dto.usuario.UsuarioPaginaCursorDTO;
+import com.gestioneventos.cofira.enums.OrdenListadoUsuarios;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,14 +45,66 @@ public interface UsuarioControllerApi {
         @Parameter(description = "Filtro por nombre de usuario") @RequestParam(required = false) String nombre,
         @ParameterObject Pageable pageable);
 
-    @Operation(summary = "Obtener usuario por ID", description = "Obtiene los detalles completos de un usuario específico")
+    @Operation(summary = "Buscar usuarios por nombre",
+        description = "Devuelve los usuarios cuyo nombre contiene el término, ordenados por parecido con él")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados de la búsqueda",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UsuarioListadoDTO.class)))
+    })
+    ResponseEntity<List<UsuarioListadoDTO>> buscarUsuarios(
+        @Parameter(description = "Término a buscar en el nombre", required = true) @RequestParam("q") String termino,
+        @Parameter(description = "Máximo de resultados (por defecto 20, máximo 100)") @RequestParam(required = false) Integer limite);
+
+    @Operation(summary = "Listar usuarios por cursor",
+        description = "Listado paginado por cursor (keyset): el coste de cada página no depende de su profundidad. "
+            + "Para pedir la página siguiente se envía el siguienteCursor de la respuesta anterior con el mismo orden")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UsuarioPaginaCursorDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor no válido", content = @Content)
+    })
+    ResponseEntity<UsuarioPaginaCursorDTO> listarUsuariosPorCursor(
+        @Parameter(description = "Filtro por nombre de usuario") @RequestParam(required = false) String nombre,
+        @Parameter(description = "Orden del listado: ID o NOMBRE") @RequestParam(defaultValue = "ID") OrdenListadoUsuarios orden,
+        @Parameter(description = "Cursor devuelto en la página anterior; vacío para la primera") @RequestParam(required = false) String cursor,
+        @Parameter(description = "Tamaño de página (máximo 100)") @RequestParam(defaultValue = "20") int size,
+        @Parameter(description = "Incluir el total aproximado de usuarios (solo sin filtro)") @RequestParam(defaultValue = "false") boolean totalEstimado);
+
+    @Operation(summary = "Listar usuarios con plan activo",
+        description = "Usuarios con suscripción activa en orden de id, paginados por cursor. "
+            + "Para pedir la página siguiente se envía el siguienteCursor de la respuesta anterior")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UsuarioPaginaCursorDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor no válido", content = @Content)
+    })
+    ResponseEntity<UsuarioPaginaCursorDTO> listarUsuariosConPlanActivo(
+        @Parameter(description = "Cursor devuelto en la página anterior; vacío para la primera") @RequestParam(required = false) String cursor,
+        @Parameter(description = "Tamaño de página (máximo 100)") @RequestParam(defaultValue = "100") int size);
+
+    @Operation(summary = "Estadísticas demográficas de los usuarios",
+        description = "Histogramas de edad, peso y altura, categorías de IMC y recuentos por rol y plan activo, "
+            + "calculados con consultas agregadas en la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = EstadisticasUsuariosDTO.class)))
+    })
+    ResponseEntity<EstadisticasUsuariosDTO> obtenerEstadisticas();
+
+    @Operation(summary = "Obtener usuario por ID",
+        description = "Obtiene los detalles de un usuario específico. Con include se eligen las partes opcionales "
+            + "(alimentosFavoritos, alergias, rutinaAlimentacion, rutinaEjercicio); las demás no se cargan ni se devuelven. "
+            + "Sin include se devuelve todo; con include vacío, solo el perfil")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Usuario encontrado",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = UsuarioDetalleDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Valor de include no válido", content = @Content),
         @ApiResponse(responseCode = "404", description = "Usuario no encontrado", content = @Content)
     })
     ResponseEntity<UsuarioDetalleDTO> obtenerUsuario(
-        @Parameter(description = "ID del usuario a obtener", required = true) @PathVariable Long id);
+        @Parameter(description = "ID del usuario a obtener", required = true) @PathVariable Long id,
+        @Parameter(description = "Partes opcionales a incluir, separadas por comas", example = "rutinaAlimentacion,rutinaEjercicio")
+        @RequestParam(required = false) List<String> include);
 
     @Operation(summary = "Obtener usuario por email", description = "Obtiene los detalles completos de un usuario por su email")
     @ApiResponses(value = {
@@ -52,6 +115,24 @@ public interface UsuarioControllerApi {
     ResponseEntity<UsuarioDetalleDTO> obtenerUsuarioPorEmail(
         @Parameter(description = "Email del usuario a buscar", required = true) @RequestParam("email") String email);
 
+    @Operation(summary = "Comprobar si un email está registrado",
+        description = "Devuelve true si el email ya está en uso. Pensado para el formulario de registro")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultado de la comprobación",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Boolean.class)))
+    })
+    ResponseEntity<Boolean> existeEmail(
+        @Parameter(description = "Email a comprobar", required = true) @RequestParam("email") String email);
+
+    @Operation(summary = "Comprobar si un username está registrado",
+        description = "Devuelve true si el username ya está en uso. Pensado para el formulario de registro")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultado de la comprobación",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Boolean.class)))
+    })
+    ResponseEntity<Boolean> existeUsername(
+        @Parameter(description = "Username a comprobar", required = true) @RequestParam("username") String username);
+
     @Operation(summary = "Crear un nuevo usuario", description = "Crea un nuevo usuario en el sistema")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Usuario creado exitosamente",
@@ -61,6 +142,28 @@ public interface UsuarioControllerApi {
     ResponseEntity<UsuarioDetalleDTO> crearUsuario(
         @Parameter(description = "Datos del usuario a crear", required = true) @RequestBody @Valid CrearUsuarioDTO crearUsuarioDTO);
 
+    @Operation(summary = "Importar usuarios en bloque",
+        description = "Crea usuarios a partir de un CSV (cabecera nombre,username,email,password[,rol,edad,peso,altura]) "
+            + "o de un NDJSON (un CrearUsuarioDTO por línea). El fichero se procesa en streaming y por lotes; "
+            + "las filas no válidas o duplicadas se rechazan individualmente y se detallan en la respuesta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación completada (puede incluir filas rechazadas)",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportacionUsuariosDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Formato o cabecera no válidos", content = @Content)
+    })
+    ResponseEntity<ImportacionUsuariosDTO> importarUsuarios(
+        @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        @Parameter(description = "Contenido CSV o NDJSON", required = true) InputStream cuerpo) throws IOException;
+
+    @Operation(summary = "Exportar usuarios en NDJSON",
+        description = "Descarga todos los usuarios con sus rutinas, un objeto JSON por línea y ordenados por id. "
+            + "La respuesta se escribe en streaming según se lee la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+            content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = UsuarioDetalleDTO.class)))
+    })
+    ResponseEntity<StreamingResponseBody> exportarUsuarios();
+
     @Operation(summary = "Actualizar un usuario", description = "Actualiza la información de un usuario existente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Usuario actualizado exitosamente",
@@ -1,10 +1,15 @@
 package com.gestioneventos.cofira.config;
 
+import com.gestioneventos.cofira.security.AdaptiveBCryptPasswordEncoder;
 import com.gestioneventos.cofira.security.AuthTokenFilter;
+import com.gestioneventos.cofira.security.BoundedPasswordEncoder;
+import com.gestioneventos.cofira.security.PasswordHashingExecutor;
 import com.gestioneventos.cofira.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,6 +19,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,6 +29,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -38,10 +45,12 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Tras un login correcto, rehashea las contraseñas con un coste distinto del calibrado
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -50,13 +59,35 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    // Con cofira.password-hashing.cost fijado todas las instancias usan ese coste; si no, se calibra al arrancar
+    // para ajustarse al presupuesto de latencia configurado.
+    // Lo usan directamente los procesos por lotes (importación de usuarios), que tienen su propio pool.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DelegatingPasswordEncoder passwordEncoderDirecto(@Value("${cofira.password-hashing.cost:0}") int costeFijo,
+                                                            @Value("${cofira.password-hashing.target-ms:250}") long objetivoMs,
+                                                            @Value("${cofira.password-hashing.min-cost:10}") int costeMinimo,
+                                                            @Value("${cofira.password-hashing.max-cost:16}") int costeMaximo) {
+        int coste = costeFijo > 0
+                ? costeFijo
+                : AdaptiveBCryptPasswordEncoder.calibrar(objetivoMs, costeMinimo, costeMaximo);
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new AdaptiveBCryptPasswordEncoder(coste)));
+        // Los hashes anteriores no llevan prefijo {id}: se verifican como BCrypt y se rehashean en el siguiente login
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return delegatingEncoder;
+    }
+
+    // Login y registro: BCrypt se ejecuta en un pool acotado para no bloquear los hilos de Tomcat en ráfagas de login
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder(DelegatingPasswordEncoder passwordEncoderDirecto,
+                                           PasswordHashingExecutor passwordHashingExecutor) {
+        return new BoundedPasswordEncoder(passwordEncoderDirecto, passwordHashingExecutor);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -67,6 +98,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/usuarios/email").permitAll()  // Permitir verificación de email para registro
                         .requestMatchers("/api/usuarios/username").permitAll()  // Permitir verificación de username para registro
+                        .requestMatchers("/api/usuarios/email/existe", "/api/usuarios/username/existe").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
@@ -77,7 +109,7 @@ public class SecurityConfig {
         // Para H2 Console
         http.headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable()));
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
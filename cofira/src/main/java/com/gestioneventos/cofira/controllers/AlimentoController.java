@@ -1,7 +1,13 @@
 package com.gestioneventos.cofira.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,6 +16,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,7 +24,11 @@ import org.springframework.web.bind.annotation.RestController;
 import com.gestioneventos.cofira.api.AlimentoControllerApi;
 import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
 import com.gestioneventos.cofira.dto.alimento.CrearAlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.ImportacionAlimentosDTO;
 import com.gestioneventos.cofira.dto.alimento.ModificarAlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.SugerenciaAlimentoDTO;
+import com.gestioneventos.cofira.enums.FormatoImportacion;
+import com.gestioneventos.cofira.services.AlimentoImportacionService;
 import com.gestioneventos.cofira.services.AlimentoService;
 
 import jakarta.validation.Valid;
@@ -28,19 +39,47 @@ import org.springframework.security.access.prepost.PreAuthorize;
 public class AlimentoController implements AlimentoControllerApi {
 
     private final AlimentoService alimentoService;
+    private final AlimentoImportacionService alimentoImportacionService;
 
-    public AlimentoController(AlimentoService alimentoService) {
+    public AlimentoController(AlimentoService alimentoService,
+                              AlimentoImportacionService alimentoImportacionService) {
         this.alimentoService = alimentoService;
+        this.alimentoImportacionService = alimentoImportacionService;
     }
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<AlimentoDTO>> listarAlimentos(
-            @RequestParam(required = false) String nombre) {
-        List<AlimentoDTO> alimentos = alimentoService.listarAlimentos(nombre);
+    public ResponseEntity<Page<AlimentoDTO>> listarAlimentos(
+            @RequestParam(required = false) String nombre,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        Page<AlimentoDTO> alimentos = alimentoService.listarAlimentos(nombre, pageable);
         return ResponseEntity.ok(alimentos);
     }
 
+    @GetMapping("/buscar")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<AlimentoDTO>> buscarAlimentos(
+            @RequestParam("q") String termino,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(alimentoService.buscarAlimentos(termino, limite));
+    }
+
+    @GetMapping("/autocompletar")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SugerenciaAlimentoDTO>> autocompletarAlimentos(
+            @RequestParam("q") String consulta,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(alimentoService.sugerirAlimentos(consulta, limite));
+    }
+
+    @GetMapping("/seguros")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Page<AlimentoDTO>> listarAlimentosSeguros(
+            @RequestParam(required = false) List<String> alergias,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(alimentoService.listarAlimentosSeguros(alergias, pageable));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<AlimentoDTO> obtenerAlimento(@PathVariable Long id) {
@@ -55,6 +94,15 @@ public class AlimentoController implements AlimentoControllerApi {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoAlimento);
     }
 
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportacionAlimentosDTO> importarAlimentos(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                     InputStream cuerpo) throws IOException {
+        ImportacionAlimentosDTO resultado = alimentoImportacionService.importar(cuerpo,
+                FormatoImportacion.desdeContentType(contentType));
+        return ResponseEntity.ok(resultado);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<AlimentoDTO> actualizarAlimento(@PathVariable Long id,
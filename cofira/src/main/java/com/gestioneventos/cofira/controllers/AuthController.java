@@ -9,6 +9,7 @@ import com.gestioneventos.cofira.services.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -45,4 +46,11 @@ public class AuthController implements AuthControllerApi {
         }
         return ResponseEntity.badRequest().body("Token no proporcionado");
     }
+
+    @PostMapping("/logout-all")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> logoutAll() {
+        authService.logoutAll();
+        return ResponseEntity.ok().body("Se han cerrado todas las sesiones");
+    }
 }
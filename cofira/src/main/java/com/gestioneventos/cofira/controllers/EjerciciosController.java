@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.gestioneventos.cofira.api.EjerciciosControllerApi;
@@ -34,8 +35,9 @@ public class EjerciciosController implements EjerciciosControllerApi {
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<EjerciciosDTO>> listarEjercicios() {
-        List<EjerciciosDTO> ejercicios = ejerciciosService.listarEjercicios();
+    public ResponseEntity<List<EjerciciosDTO>> listarEjercicios(@RequestParam(required = false) String nombre,
+                                                                @RequestParam(required = false) Integer limite) {
+        List<EjerciciosDTO> ejercicios = ejerciciosService.listarEjercicios(nombre, limite);
         return ResponseEntity.ok(ejercicios);
     }
 
@@ -1,7 +1,13 @@
 package com.gestioneventos.cofira.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,14 +16,25 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.gestioneventos.cofira.api.UsuarioControllerApi;
 import com.gestioneventos.cofira.dto.usuario.CrearUsuarioDTO;
+import com.gestioneventos.cofira.dto.usuario.EstadisticasUsuariosDTO;
+import com.gestioneventos.cofira.dto.usuario.ImportacionUsuariosDTO;
 import com.gestioneventos.cofira.dto.usuario.ModificarUsuarioDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioDetalleDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO;
+import com.gestioneventos.cofira.dto.usuario.UsuarioPaginaCursorDTO;
+import com.gestioneventos.cofira.enums.FormatoImportacion;
+import com.gestioneventos.cofira.enums.InclusionUsuario;
+import com.gestioneventos.cofira.enums.OrdenListadoUsuarios;
+import com.gestioneventos.cofira.services.EstadisticasUsuariosService;
+import com.gestioneventos.cofira.services.UsuarioExportacionService;
+import com.gestioneventos.cofira.services.UsuarioImportacionService;
 import com.gestioneventos.cofira.services.UsuarioService;
 
 import jakarta.validation.Valid;
@@ -28,9 +45,17 @@ import org.springframework.security.access.prepost.PreAuthorize;
 public class UsuarioController implements UsuarioControllerApi {
 
     private final UsuarioService usuarioService;
+    private final UsuarioImportacionService usuarioImportacionService;
+    private final UsuarioExportacionService usuarioExportacionService;
+    private final EstadisticasUsuariosService estadisticasUsuariosService;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, UsuarioImportacionService usuarioImportacionService,
+                             UsuarioExportacionService usuarioExportacionService,
+                             EstadisticasUsuariosService estadisticasUsuariosService) {
         this.usuarioService = usuarioService;
+        this.usuarioImportacionService = usuarioImportacionService;
+        this.usuarioExportacionService = usuarioExportacionService;
+        this.estadisticasUsuariosService = estadisticasUsuariosService;
     }
 
     @GetMapping
@@ -43,10 +68,46 @@ public class UsuarioController implements UsuarioControllerApi {
         return ResponseEntity.ok(usuarios);
     }
 
+    @GetMapping("/buscar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UsuarioListadoDTO>> buscarUsuarios(@RequestParam("q") String termino,
+                                                                  @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(usuarioService.buscarUsuarios(termino, limite));
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UsuarioPaginaCursorDTO> listarUsuariosPorCursor(
+            @RequestParam(required = false) String nombre,
+            @RequestParam(defaultValue = "ID") OrdenListadoUsuarios orden,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean totalEstimado) {
+        String nombreFiltro = (nombre != null && !nombre.trim().isEmpty()) ? nombre : null;
+        String cursorDesde = (cursor != null && !cursor.isBlank()) ? cursor : null;
+        return ResponseEntity.ok(usuarioService.listarUsuariosPorCursor(nombreFiltro, orden, cursorDesde, size, totalEstimado));
+    }
+
+    @GetMapping("/plan-activo")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UsuarioPaginaCursorDTO> listarUsuariosConPlanActivo(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        String cursorDesde = (cursor != null && !cursor.isBlank()) ? cursor : null;
+        return ResponseEntity.ok(usuarioService.listarUsuariosConPlanActivo(cursorDesde, size));
+    }
+
+    @GetMapping("/estadisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EstadisticasUsuariosDTO> obtenerEstadisticas() {
+        return ResponseEntity.ok(estadisticasUsuariosService.obtenerEstadisticas());
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<UsuarioDetalleDTO> obtenerUsuario(@PathVariable Long id) {
-        UsuarioDetalleDTO usuario = usuarioService.obtenerUsuario(id);
+    public ResponseEntity<UsuarioDetalleDTO> obtenerUsuario(@PathVariable Long id,
+                                                            @RequestParam(required = false) List<String> include) {
+        UsuarioDetalleDTO usuario = usuarioService.obtenerUsuario(id, InclusionUsuario.desde(include));
         return ResponseEntity.ok(usuario);
     }
 
@@ -62,6 +123,16 @@ public class UsuarioController implements UsuarioControllerApi {
         return ResponseEntity.ok(usuario);
     }
 
+    @GetMapping("/email/existe")
+    public ResponseEntity<Boolean> existeEmail(@RequestParam("email") String email) {
+        return ResponseEntity.ok(usuarioService.existeEmail(email));
+    }
+
+    @GetMapping("/username/existe")
+    public ResponseEntity<Boolean> existeUsername(@RequestParam("username") String username) {
+        return ResponseEntity.ok(usuarioService.existeUsername(username));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UsuarioDetalleDTO> crearUsuario(@RequestBody @Valid CrearUsuarioDTO crearUsuarioDTO) {
@@ -69,6 +140,25 @@ public class UsuarioController implements UsuarioControllerApi {
         return ResponseEntity.ok(nuevoUsuario);
     }
 
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportacionUsuariosDTO> importarUsuarios(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                   InputStream cuerpo) throws IOException {
+        ImportacionUsuariosDTO resultado = usuarioImportacionService.importar(cuerpo,
+                FormatoImportacion.desdeContentType(contentType));
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarUsuarios() {
+        StreamingResponseBody cuerpo = usuarioExportacionService::exportar;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"usuarios.ndjson\"")
+                .body(cuerpo);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UsuarioDetalleDTO> actualizarUsuario(@PathVariable Long id,
@@ -0,0 +1,39 @@
+package com.gestioneventos.cofira.dto.alimento;
+
+import com.gestioneventos.cofira.dto.importacion.ErrorImportacionDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "Resultado de una importación masiva de alimentos")
+public class ImportacionAlimentosDTO {
+    @Schema(description = "Filas leídas del fichero, sin contar cabecera ni líneas vacías", example = "250000")
+    private long filasProcesadas;
+
+    @Schema(description = "Alimentos creados", example = "241300")
+    private long alimentosCreados;
+
+    @Schema(description = "Ingredientes insertados", example = "1873000")
+    private long ingredientesCreados;
+
+    @Schema(description = "Filas omitidas porque su nombre normalizado ya existía en el catálogo o en el fichero", example = "8650")
+    private long duplicados;
+
+    @Schema(description = "Filas rechazadas por errores de formato", example = "50")
+    private long filasRechazadas;
+
+    @Schema(description = "Detalle de las filas rechazadas (limitado; ver erroresTruncados)")
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+
+    @Schema(description = "true si hubo más errores de los que se detallan")
+    private boolean erroresTruncados;
+
+    @Schema(description = "Duración de la importación en milisegundos", example = "41000")
+    private long duracionMs;
+
+    @Schema(description = "Filas procesadas por segundo", example = "6097.5")
+    private double filasPorSegundo;
+}
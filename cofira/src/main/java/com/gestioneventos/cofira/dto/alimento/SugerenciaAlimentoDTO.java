@@ -0,0 +1,13 @@
+package com.gestioneventos.cofira.dto.alimento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaAlimentoDTO {
+    private Long id;
+    private String nombre;
+}
@@ -0,0 +1,18 @@
+package com.gestioneventos.cofira.dto.importacion;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Fila rechazada en una importación masiva")
+public class ErrorImportacionDTO {
+    @Schema(description = "Número de línea en el fichero (empezando en 1)", example = "42")
+    private long fila;
+
+    @Schema(description = "Motivo del rechazo", example = "El email ya está en uso")
+    private String mensaje;
+}
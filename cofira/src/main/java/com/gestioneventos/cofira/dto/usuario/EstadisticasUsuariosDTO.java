@@ -0,0 +1,38 @@
+package com.gestioneventos.cofira.dto.usuario;
+
+import com.gestioneventos.cofira.enums.CategoriaImc;
+import com.gestioneventos.cofira.enums.Rol;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Distribución demográfica de los usuarios. Los usuarios sin el dato correspondiente no cuentan en su histograma")
+public class EstadisticasUsuariosDTO {
+    @Schema(description = "Número total de usuarios", example = "1250")
+    private long totalUsuarios;
+
+    @Schema(description = "Usuarios con un plan de suscripción activo", example = "830")
+    private long usuariosConPlanActivo;
+
+    @Schema(description = "Usuarios por rol")
+    private Map<Rol, Long> usuariosPorRol;
+
+    @Schema(description = "Histograma de edad en tramos de 10 años")
+    private List<TramoHistogramaDTO> edad;
+
+    @Schema(description = "Histograma de peso en tramos de 10 kg")
+    private List<TramoHistogramaDTO> peso;
+
+    @Schema(description = "Histograma de altura en tramos de 0.1 m")
+    private List<TramoHistogramaDTO> altura;
+
+    @Schema(description = "Usuarios por categoría de IMC (peso / altura²), solo los que tienen peso y altura")
+    private Map<CategoriaImc, Long> imc;
+}
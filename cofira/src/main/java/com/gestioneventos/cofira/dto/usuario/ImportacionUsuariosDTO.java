@@ -0,0 +1,27 @@
+package com.gestioneventos.cofira.dto.usuario;
+
+import com.gestioneventos.cofira.dto.importacion.ErrorImportacionDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "Resultado de una importación masiva de usuarios")
+public class ImportacionUsuariosDTO {
+    @Schema(description = "Filas leídas del fichero, sin contar cabecera ni líneas vacías", example = "5000")
+    private long filasProcesadas;
+
+    @Schema(description = "Usuarios creados", example = "4987")
+    private long usuariosCreados;
+
+    @Schema(description = "Filas rechazadas", example = "13")
+    private long filasRechazadas;
+
+    @Schema(description = "Detalle de las filas rechazadas (limitado; ver erroresTruncados)")
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+
+    @Schema(description = "true si hubo más errores de los que se detallan")
+    private boolean erroresTruncados;
+}
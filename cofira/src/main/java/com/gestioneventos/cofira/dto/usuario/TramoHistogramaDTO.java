@@ -0,0 +1,21 @@
+package com.gestioneventos.cofira.dto.usuario;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Tramo de un histograma: usuarios con valor en [desde, hasta)")
+public class TramoHistogramaDTO {
+    @Schema(description = "Límite inferior del tramo (incluido)", example = "20")
+    private double desde;
+
+    @Schema(description = "Límite superior del tramo (excluido)", example = "30")
+    private double hasta;
+
+    @Schema(description = "Número de usuarios en el tramo", example = "42")
+    private long total;
+}
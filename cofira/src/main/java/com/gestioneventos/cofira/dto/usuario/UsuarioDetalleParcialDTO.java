@@ -0,0 +1,15 @@
+package com.gestioneventos.cofira.dto.usuario;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Detalle de usuario pedido con un ?include= que no cubre todas las partes. Las partes que no se piden
+ * quedan a null y no se serializan; el resto de respuestas con {@link UsuarioDetalleDTO} no cambian.
+ */
+@EqualsAndHashCode(callSuper = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Detalles de un usuario con solo las partes pedidas en include")
+public class UsuarioDetalleParcialDTO extends UsuarioDetalleDTO {
+}
@@ -1,8 +1,12 @@
 package com.gestioneventos.cofira.dto.usuario;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UsuarioListadoDTO {
     private Long id;
     private String nombre;
@@ -0,0 +1,24 @@
+package com.gestioneventos.cofira.dto.usuario;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página del listado de usuarios paginado por cursor")
+public class UsuarioPaginaCursorDTO {
+    @Schema(description = "Usuarios de la página")
+    private List<UsuarioListadoDTO> contenido;
+
+    @Schema(description = "Cursor opaco para pedir la página siguiente; null si no hay más", example = "SUQ6NDI")
+    private String siguienteCursor;
+
+    @Schema(description = "Total aproximado de usuarios según las estadísticas de PostgreSQL; solo si se pide y no hay filtro",
+            example = "125000")
+    private Long totalEstimado;
+}
@@ -3,6 +3,7 @@ package com.gestioneventos.cofira.entities;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 import java.util.Objects;
@@ -15,14 +16,17 @@ import java.util.Objects;
 @Builder
 public class Alimento {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alimento_seq")
+    @SequenceGenerator(name = "alimento_seq", sequenceName = "alimento_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del alimento no puede estar vacío")
     @Column(nullable = false)
     private String nombre;
 
+    // En los listados paginados los ingredientes de toda la página se cargan en una única consulta IN
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "ingredientes_alimento", joinColumns = @JoinColumn(name = "alimento_id"))
     @Column(name = "ingrediente")
     private List<String> ingredientes;
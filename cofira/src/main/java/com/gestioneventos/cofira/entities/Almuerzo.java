@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Almuerzo {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "almuerzo_seq")
+    @SequenceGenerator(name = "almuerzo_seq", sequenceName = "almuerzo_id_seq", allocationSize = 50)
     private Long id;
 
     @ElementCollection
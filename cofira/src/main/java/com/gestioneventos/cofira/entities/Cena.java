@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Cena {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cena_seq")
+    @SequenceGenerator(name = "cena_seq", sequenceName = "cena_id_seq", allocationSize = 50)
     private Long id;
 
     @ElementCollection
@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Comida {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comida_seq")
+    @SequenceGenerator(name = "comida_seq", sequenceName = "comida_id_seq", allocationSize = 50)
     private Long id;
 
     @ElementCollection
@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Desayuno {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "desayuno_seq")
+    @SequenceGenerator(name = "desayuno_seq", sequenceName = "desayuno_id_seq", allocationSize = 50)
     private Long id;
 
     @ElementCollection
@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class DiaAlimentacion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dia_alimentacion_seq")
+    @SequenceGenerator(name = "dia_alimentacion_seq", sequenceName = "dia_alimentacion_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
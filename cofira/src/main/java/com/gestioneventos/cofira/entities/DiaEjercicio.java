@@ -15,7 +15,8 @@ import java.util.Objects;
 @Builder
 public class DiaEjercicio {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dia_ejercicio_seq")
+    @SequenceGenerator(name = "dia_ejercicio_seq", sequenceName = "dia_ejercicio_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
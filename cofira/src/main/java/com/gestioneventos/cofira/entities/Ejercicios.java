@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Ejercicios {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ejercicios_seq")
+    @SequenceGenerator(name = "ejercicios_seq", sequenceName = "ejercicios_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Merienda {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merienda_seq")
+    @SequenceGenerator(name = "merienda_seq", sequenceName = "merienda_id_seq", allocationSize = 50)
     private Long id;
 
     @ElementCollection
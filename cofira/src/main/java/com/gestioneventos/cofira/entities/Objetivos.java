@@ -14,7 +14,8 @@ import java.util.Objects;
 @Builder
 public class Objetivos {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "objetivos_seq")
+    @SequenceGenerator(name = "objetivos_seq", sequenceName = "objetivos_id_seq", allocationSize = 50)
     private Long id;
 
     @ElementCollection
@@ -17,7 +17,8 @@ import java.util.Objects;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class RutinaAlimentacion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rutina_alimentacion_seq")
+    @SequenceGenerator(name = "rutina_alimentacion_seq", sequenceName = "rutina_alimentacion_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -17,7 +17,8 @@ import java.util.Objects;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class RutinaEjercicio {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rutina_ejercicio_seq")
+    @SequenceGenerator(name = "rutina_ejercicio_seq", sequenceName = "rutina_ejercicio_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -19,7 +19,8 @@ import java.util.Objects;
 @Builder
 public class SalaDeGimnasio {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sala_de_gimnasio_seq")
+    @SequenceGenerator(name = "sala_de_gimnasio_seq", sequenceName = "sala_de_gimnasio_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
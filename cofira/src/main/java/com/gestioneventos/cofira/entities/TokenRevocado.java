@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Table(name = "revoked_tokens")
 public class TokenRevocado {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -21,10 +21,12 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(name = "usuarios")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Usuario {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -51,6 +53,12 @@ public class Usuario {
     private Double peso;
     private Double altura;
 
+    // Solo son válidos los JWT emitidos con esta época; incrementarla invalida todas las sesiones del usuario
+    @NotNull
+    @Column(name = "epoca_token", nullable = false)
+    @Builder.Default
+    private Long epocaToken = 0L;
+
     @ElementCollection
     @CollectionTable(name = "usuario_alimentos_favoritos", joinColumns = @JoinColumn(name = "usuario_id"))
     @Column(name = "alimento_favorito")
@@ -75,6 +83,14 @@ public class Usuario {
     @JoinColumn(name = "rutina_ejercicio_id")
     private RutinaEjercicio rutinaEjercicio;
 
+    // Cambiar el rol de un usuario ya guardado invalida sus JWT: en modo TOKEN los roles del principal salen del token
+    public void setRol(Rol rol) {
+        if (id != null && this.rol != null && this.rol != rol) {
+            epocaToken = (epocaToken != null ? epocaToken : 0L) + 1;
+        }
+        this.rol = rol;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,9 @@
+package com.gestioneventos.cofira.enums;
+
+// Categorías de IMC de la OMS: < 18.5, < 25, < 30 y el resto. Los nombres coinciden con los literales de la consulta
+public enum CategoriaImc {
+    BAJO_PESO,
+    NORMAL,
+    SOBREPESO,
+    OBESIDAD
+}
@@ -0,0 +1,32 @@
+package com.gestioneventos.cofira.enums;
+
+import org.springframework.http.MediaType;
+
+// Formatos aceptados por las importaciones masivas de usuarios y alimentos
+public enum FormatoImportacion {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    FormatoImportacion(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static FormatoImportacion desdeContentType(String contentType) {
+        if (contentType != null) {
+            MediaType tipo = MediaType.parseMediaType(contentType);
+            for (FormatoImportacion formato : values()) {
+                if (tipo.isCompatibleWith(MediaType.parseMediaType(formato.mediaType))) {
+                    return formato;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Formato de importación no soportado: " + contentType
+                + ". Use text/csv o application/x-ndjson");
+    }
+}
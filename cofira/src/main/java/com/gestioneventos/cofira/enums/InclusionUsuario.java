@@ -0,0 +1,48 @@
+package com.gestioneventos.cofira.enums;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Partes opcionales del detalle de usuario que se pueden pedir con ?include=
+public enum InclusionUsuario {
+    ALIMENTOS_FAVORITOS("alimentosFavoritos"),
+    ALERGIAS("alergias"),
+    RUTINA_ALIMENTACION("rutinaAlimentacion"),
+    RUTINA_EJERCICIO("rutinaEjercicio");
+
+    private final String campo;
+
+    InclusionUsuario(String campo) {
+        this.campo = campo;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    /**
+     * Convierte los valores de ?include= en el conjunto de partes a cargar. Sin parámetro se incluye
+     * todo (comportamiento anterior); con {@code include=} vacío solo se devuelve el perfil.
+     */
+    public static Set<InclusionUsuario> desde(Collection<String> campos) {
+        if (campos == null) {
+            return EnumSet.allOf(InclusionUsuario.class);
+        }
+        Set<InclusionUsuario> inclusiones = EnumSet.noneOf(InclusionUsuario.class);
+        for (String campo : campos) {
+            if (campo == null || campo.isBlank()) {
+                continue;
+            }
+            inclusiones.add(Arrays.stream(values())
+                    .filter(inclusion -> inclusion.campo.equals(campo.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Valor de include no válido: " + campo.trim()
+                            + ". Valores admitidos: " + Arrays.stream(values()).map(InclusionUsuario::getCampo)
+                            .collect(Collectors.joining(", ")))));
+        }
+        return inclusiones;
+    }
+}
@@ -0,0 +1,7 @@
+package com.gestioneventos.cofira.enums;
+
+// Orden del listado de usuarios por cursor: por id, o por nombre desempatando por id
+public enum OrdenListadoUsuarios {
+    ID,
+    NOMBRE
+}
@@ -0,0 +1,8 @@
+package com.gestioneventos.cofira.events;
+
+/**
+ * Se publica al crear, modificar o eliminar un alimento para que las cachés del catálogo se invaliden.
+ * {@code alimentoId} es el id del alimento afectado.
+ */
+public record AlimentoModificadoEvent(Long alimentoId) {
+}
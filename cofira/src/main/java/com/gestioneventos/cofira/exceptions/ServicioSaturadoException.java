@@ -0,0 +1,7 @@
+package com.gestioneventos.cofira.exceptions;
+
+public class ServicioSaturadoException extends RuntimeException {
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
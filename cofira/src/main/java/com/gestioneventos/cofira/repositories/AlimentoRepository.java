@@ -1,10 +1,37 @@
 package com.gestioneventos.cofira.repositories;
 
 import com.gestioneventos.cofira.entities.Alimento;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AlimentoRepository extends JpaRepository<Alimento, Long> {
     List<Alimento> findByNombreContainingIgnoreCase(String nombre);
+
+    // Alimentos con sus ingredientes en una sola consulta, para cargar los índices en memoria del catálogo
+    @Query("SELECT a FROM Alimento a LEFT JOIN FETCH a.ingredientes ORDER BY a.id")
+    List<Alimento> findAllConIngredientes();
+
+    @Query("SELECT a FROM Alimento a LEFT JOIN FETCH a.ingredientes WHERE a.id = :id")
+    Optional<Alimento> findConIngredientesById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT a FROM Alimento a LEFT JOIN FETCH a.ingredientes WHERE a.id IN :ids")
+    List<Alimento> findConIngredientesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Listado paginado filtrado por nombre; el patrón viene de BusquedaTexto para aprovechar el índice trigram
+    @Query(value = "SELECT a FROM Alimento a WHERE LOWER(a.nombre) LIKE :patron ESCAPE '\\'",
+            countQuery = "SELECT COUNT(a) FROM Alimento a WHERE LOWER(a.nombre) LIKE :patron ESCAPE '\\'")
+    Page<Alimento> findByNombrePaginado(@Param("patron") String patron, Pageable pageable);
+
+    // Búsqueda por subcadena servida por el índice trigram, ordenada por parecido con el término
+    @Query("SELECT a FROM Alimento a WHERE LOWER(a.nombre) LIKE :patron ESCAPE '\\' "
+            + "ORDER BY FUNCTION('similarity', a.nombre, :termino) DESC, a.id")
+    List<Alimento> buscarPorNombre(@Param("patron") String patron, @Param("termino") String termino, Limit limit);
 }
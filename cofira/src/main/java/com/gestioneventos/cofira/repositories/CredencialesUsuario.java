@@ -0,0 +1,21 @@
+package com.gestioneventos.cofira.repositories;
+
+import com.gestioneventos.cofira.enums.Rol;
+
+/**
+ * Proyección con los datos que necesita la autenticación. Se lee en una sola SELECT sobre
+ * {@code usuarios}, sin cargar la entidad ni sus relaciones (objetivos, plan, rutinas).
+ */
+public interface CredencialesUsuario {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getPassword();
+
+    Rol getRol();
+
+    Long getEpocaToken();
+}
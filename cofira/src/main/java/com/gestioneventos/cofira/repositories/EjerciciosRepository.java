@@ -1,7 +1,10 @@
 package com.gestioneventos.cofira.repositories;
 
 import com.gestioneventos.cofira.entities.Ejercicios;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -9,6 +12,11 @@ public interface EjerciciosRepository extends JpaRepository<Ejercicios, Long> {
     // Buscar ejercicios por nombre
     List<Ejercicios> findByNombreEjercicioContainingIgnoreCase(String nombre);
 
+    // Búsqueda por subcadena servida por el índice trigram, ordenada por parecido con el término
+    @Query("SELECT e FROM Ejercicios e WHERE LOWER(e.nombreEjercicio) LIKE :patron ESCAPE '\\' "
+            + "ORDER BY FUNCTION('similarity', e.nombreEjercicio, :termino) DESC, e.id")
+    List<Ejercicios> buscarPorNombre(@Param("patron") String patron, @Param("termino") String termino, Limit limit);
+
     // Buscar ejercicios por número de series
     List<Ejercicios> findBySeriesGreaterThanEqual(Integer series);
 
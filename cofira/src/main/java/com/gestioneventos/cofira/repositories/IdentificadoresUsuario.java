@@ -0,0 +1,13 @@
+package com.gestioneventos.cofira.repositories;
+
+/**
+ * Proyección con el id, el username y el email, para recorrer todos los usuarios por páginas
+ * al reconstruir el índice de existencia.
+ */
+public interface IdentificadoresUsuario {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+}
@@ -0,0 +1,25 @@
+package com.gestioneventos.cofira.repositories;
+
+import com.gestioneventos.cofira.enums.Rol;
+
+/**
+ * Proyección con los campos simples del usuario, para devolver su perfil sin cargar
+ * la entidad ni ninguna de sus relaciones.
+ */
+public interface PerfilUsuario {
+    Long getId();
+
+    String getNombre();
+
+    String getUsername();
+
+    String getEmail();
+
+    Rol getRol();
+
+    Integer getEdad();
+
+    Double getPeso();
+
+    Double getAltura();
+}
@@ -0,0 +1,10 @@
+package com.gestioneventos.cofira.repositories;
+
+/**
+ * Fila de un recuento agrupado (GROUP BY) calculado en la base de datos.
+ */
+public interface RecuentoPorGrupo {
+    Object getGrupo();
+
+    Long getTotal();
+}
@@ -2,11 +2,9 @@ package com.gestioneventos.cofira.repositories;
 
 import com.gestioneventos.cofira.entities.TokenRevocado;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, Long> {
@@ -14,7 +12,7 @@ public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, Lo
 
     boolean existsByJti(String jti);
 
-    @Modifying
-    @Query("DELETE FROM TokenRevocado t WHERE t.expiresAt < :now")
-    void deleteExpiredTokens(@Param("now") LocalDateTime now);
+    List<TokenRevocado> findByExpiresAtAfter(LocalDateTime now);
+
+    List<TokenRevocado> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime desde, LocalDateTime now);
 }
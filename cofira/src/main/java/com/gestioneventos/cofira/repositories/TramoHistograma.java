@@ -0,0 +1,11 @@
+package com.gestioneventos.cofira.repositories;
+
+/**
+ * Fila de un histograma calculado en la base de datos: índice del tramo (valor / ancho, redondeado hacia abajo)
+ * y número de usuarios que caen en él.
+ */
+public interface TramoHistograma {
+    Number getTramo();
+
+    Long getTotal();
+}
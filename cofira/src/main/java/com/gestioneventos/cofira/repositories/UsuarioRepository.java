@@ -1,30 +1,145 @@
 package com.gestioneventos.cofira.repositories;
 
+import com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO;
+import com.gestioneventos.cofira.entities.RutinaAlimentacion;
+import com.gestioneventos.cofira.entities.RutinaEjercicio;
 import com.gestioneventos.cofira.entities.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    // Solo los campos simples del usuario (detalle sin relaciones)
+    @Query("SELECT u.id AS id, u.nombre AS nombre, u.username AS username, u.email AS email, u.rol AS rol, "
+            + "u.edad AS edad, u.peso AS peso, u.altura AS altura FROM Usuario u WHERE u.id = :id")
+    Optional<PerfilUsuario> findPerfilById(@Param("id") Long id);
+
+    @Query("SELECT f FROM Usuario u JOIN u.alimentosFavoritos f WHERE u.id = :id")
+    List<String> findAlimentosFavoritosById(@Param("id") Long id);
+
+    @Query("SELECT a FROM Usuario u JOIN u.alergias a WHERE u.id = :id")
+    List<String> findAlergiasById(@Param("id") Long id);
+
+    // Solo la rutina de alimentación del usuario con sus días y comidas, sin cargar el usuario ni sus otras relaciones
+    @Query("SELECT r FROM Usuario u JOIN u.rutinaAlimentacion r LEFT JOIN FETCH r.diasAlimentacion d "
+            + "LEFT JOIN FETCH d.desayuno LEFT JOIN FETCH d.almuerzo LEFT JOIN FETCH d.comida "
+            + "LEFT JOIN FETCH d.merienda LEFT JOIN FETCH d.cena WHERE u.id = :id")
+    Optional<RutinaAlimentacion> findRutinaAlimentacionById(@Param("id") Long id);
+
+    // Solo la rutina de ejercicio del usuario; sus días y ejercicios se cargan por lotes
+    @Query("SELECT r FROM Usuario u JOIN u.rutinaEjercicio r WHERE u.id = :id")
+    Optional<RutinaEjercicio> findRutinaEjercicioById(@Param("id") Long id);
+
+    // Recorrido de solo lectura para la exportación: el driver trae las filas de fetchSize en fetchSize y las
+    // relaciones uno a uno (EAGER) llegan en la misma fila. Hay que consumirlo dentro de una transacción
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.objetivos LEFT JOIN FETCH u.plan "
+            + "LEFT JOIN FETCH u.rutinaAlimentacion LEFT JOIN FETCH u.rutinaEjercicio ORDER BY u.id")
+    Stream<Usuario> streamParaExportacion();
+
     // Búsqueda por email
     Optional<Usuario> findByEmail(String email);
 
     // Búsqueda por username
     Optional<Usuario> findByUsername(String username);
 
+    // Solo las credenciales, para el login (una SELECT, sin relaciones)
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.password AS password, "
+            + "u.rol AS rol, u.epocaToken AS epocaToken FROM Usuario u WHERE u.username = :username")
+    Optional<CredencialesUsuario> findCredencialesByUsername(@Param("username") String username);
+
     // Verificar si existe username
     boolean existsByUsername(String username);
 
     // Verificar si existe email
     boolean existsByEmail(String email);
 
+    // Usernames y emails por páginas (keyset sobre id), para cargar el índice de existencia sin leerlos todos de golpe
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM Usuario u WHERE u.id > :id ORDER BY u.id")
+    List<IdentificadoresUsuario> findIdentificadoresDespuesDeId(@Param("id") long id, Limit limit);
+
     // Búsqueda por nombre con paginación
     Page<Usuario> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
 
+    // Listado de administración: solo id, nombre y email, sin cargar la entidad ni sus relaciones
+    @Query(value = "SELECT new com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO(u.id, u.nombre, u.email) "
+            + "FROM Usuario u",
+            countQuery = "SELECT COUNT(u) FROM Usuario u")
+    Page<UsuarioListadoDTO> findListado(Pageable pageable);
+
+    @Query(value = "SELECT new com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO(u.id, u.nombre, u.email) "
+            + "FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))",
+            countQuery = "SELECT COUNT(u) FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
+    Page<UsuarioListadoDTO> findListadoByNombre(@Param("nombre") String nombre, Pageable pageable);
+
+    // Búsqueda por subcadena servida por el índice trigram, ordenada por parecido con el término
+    @Query("SELECT new com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO(u.id, u.nombre, u.email) "
+            + "FROM Usuario u WHERE LOWER(u.nombre) LIKE :patron ESCAPE '\\' "
+            + "ORDER BY FUNCTION('similarity', u.nombre, :termino) DESC, u.id")
+    List<UsuarioListadoDTO> buscarPorNombre(@Param("patron") String patron, @Param("termino") String termino, Limit limit);
+
+    // Listado por cursor (keyset): continúa desde la última fila devuelta en lugar de usar OFFSET.
+    // Con filtro vacío el LIKE acepta cualquier nombre
+    @Query("SELECT new com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO(u.id, u.nombre, u.email) "
+            + "FROM Usuario u WHERE u.id > :id AND LOWER(u.nombre) LIKE LOWER(CONCAT('%', :filtro, '%')) "
+            + "ORDER BY u.id")
+    List<UsuarioListadoDTO> findListadoDespuesDeId(@Param("id") long id, @Param("filtro") String filtro, Limit limit);
+
+    @Query("SELECT new com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO(u.id, u.nombre, u.email) "
+            + "FROM Usuario u WHERE (u.nombre > :nombre OR (u.nombre = :nombre AND u.id > :id)) "
+            + "AND LOWER(u.nombre) LIKE LOWER(CONCAT('%', :filtro, '%')) "
+            + "ORDER BY u.nombre, u.id")
+    List<UsuarioListadoDTO> findListadoDespuesDeNombre(@Param("nombre") String nombre, @Param("id") long id,
+                                                       @Param("filtro") String filtro, Limit limit);
+
+    // Número aproximado de filas según las estadísticas del planificador (-1 si la tabla no se ha analizado)
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('usuarios' AS regclass)",
+            nativeQuery = true)
+    Long estimarTotalUsuarios();
+
+    // Estadísticas agregadas en la base de datos: solo vuelven los recuentos, nunca las filas de usuario
+    @Query("SELECT u.rol AS grupo, COUNT(u) AS total FROM Usuario u GROUP BY u.rol")
+    List<RecuentoPorGrupo> contarPorRol();
+
+    @Query("SELECT COUNT(u) FROM Usuario u JOIN u.plan p WHERE p.subscripcionActiva = true")
+    long contarConPlanActivo();
+
+    @Query("SELECT FLOOR(u.edad / 10) AS tramo, COUNT(u) AS total FROM Usuario u WHERE u.edad IS NOT NULL "
+            + "GROUP BY FLOOR(u.edad / 10) ORDER BY FLOOR(u.edad / 10)")
+    List<TramoHistograma> histogramaEdad();
+
+    @Query("SELECT FLOOR(u.peso / 10) AS tramo, COUNT(u) AS total FROM Usuario u WHERE u.peso IS NOT NULL "
+            + "GROUP BY FLOOR(u.peso / 10) ORDER BY FLOOR(u.peso / 10)")
+    List<TramoHistograma> histogramaPeso();
+
+    // La altura se guarda en metros: tramos de 0.1 m
+    @Query("SELECT FLOOR(u.altura * 10) AS tramo, COUNT(u) AS total FROM Usuario u WHERE u.altura IS NOT NULL "
+            + "GROUP BY FLOOR(u.altura * 10) ORDER BY FLOOR(u.altura * 10)")
+    List<TramoHistograma> histogramaAltura();
+
+    @Query("SELECT CASE WHEN u.peso / (u.altura * u.altura) < 18.5 THEN 'BAJO_PESO' "
+            + "WHEN u.peso / (u.altura * u.altura) < 25 THEN 'NORMAL' "
+            + "WHEN u.peso / (u.altura * u.altura) < 30 THEN 'SOBREPESO' ELSE 'OBESIDAD' END AS grupo, "
+            + "COUNT(u) AS total FROM Usuario u WHERE u.peso IS NOT NULL AND u.altura > 0 "
+            + "GROUP BY CASE WHEN u.peso / (u.altura * u.altura) < 18.5 THEN 'BAJO_PESO' "
+            + "WHEN u.peso / (u.altura * u.altura) < 25 THEN 'NORMAL' "
+            + "WHEN u.peso / (u.altura * u.altura) < 30 THEN 'SOBREPESO' ELSE 'OBESIDAD' END")
+    List<RecuentoPorGrupo> contarPorCategoriaImc();
+
     // Búsqueda por rango de edad
     List<Usuario> findByEdadBetween(Integer edadMin, Integer edadMax);
 
@@ -37,4 +152,25 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     // Usuarios con plan activo (Query JPQL con JOIN para evitar NPE)
     @Query("SELECT u FROM Usuario u JOIN u.plan p WHERE p.subscripcionActiva = true")
     List<Usuario> findUsuariosConPlanActivo();
+
+    // Usuarios con plan activo por cursor sobre usuario_id, servido por el índice parcial de V6:
+    // cada página es un recorrido acotado del índice y solo se leen id, nombre y email
+    @Query("SELECT new com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO(u.id, u.nombre, u.email) "
+            + "FROM Plan p JOIN p.usuario u WHERE p.subscripcionActiva = true AND p.usuario.id > :id "
+            + "ORDER BY p.usuario.id")
+    List<UsuarioListadoDTO> findConPlanActivoDespuesDeId(@Param("id") long id, Limit limit);
+
+    // Época de tokens vigente del usuario
+    @Query("SELECT u.epocaToken FROM Usuario u WHERE u.id = :id")
+    Optional<Long> findEpocaTokenById(@Param("id") Long id);
+
+    // Invalida todos los JWT emitidos hasta ahora para el usuario
+    @Modifying
+    @Query("UPDATE Usuario u SET u.epocaToken = u.epocaToken + 1 WHERE u.id = :id")
+    int incrementarEpocaToken(@Param("id") Long id);
+
+    // Actualiza solo el hash de la contraseña (rehash transparente tras el login)
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password WHERE u.username = :username")
+    int actualizarPassword(@Param("username") String username, @Param("password") String password);
 }
@@ -0,0 +1,77 @@
+package com.gestioneventos.cofira.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt con un coste fijado en la configuración o, si no se fija, calibrado al arrancar según lo que tarda
+ * el hash en esta máquina.
+ * <p>
+ * Solo se pide rehash cuando el coste almacenado es menor que el objetivo. La calibración puede dar costes
+ * distintos en cada instancia o reinicio: si también se rebajara el coste, el mismo hash iría y volvería entre
+ * costes en cada login. En producción conviene fijar el coste con el valor que recomienda la calibración.
+ * A diferencia de {@link BCryptPasswordEncoder}, un hash que no es BCrypt no lanza excepción: no se rehashea.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$.{53}$");
+    private static final String PASSWORD_CALIBRACION = "calibracion-del-coste-de-bcrypt";
+    private static final int MUESTRAS = 3;
+
+    private final int coste;
+
+    public AdaptiveBCryptPasswordEncoder(int coste) {
+        super(coste);
+        this.coste = coste;
+    }
+
+    public int getCoste() {
+        return coste;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) < coste;
+    }
+
+    /**
+     * Devuelve el mayor coste en [costeMinimo, costeMaximo] cuyo hash cabe en el presupuesto de latencia.
+     * Se mide el coste mínimo y se extrapola, ya que cada punto de coste duplica el tiempo de BCrypt.
+     * Nunca baja del coste mínimo aunque la máquina sea demasiado lenta para el presupuesto.
+     */
+    public static int calibrar(long presupuestoMs, int costeMinimo, int costeMaximo) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(costeMinimo);
+        encoder.encode(PASSWORD_CALIBRACION);
+
+        long mejorNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MUESTRAS; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode(PASSWORD_CALIBRACION);
+            mejorNanos = Math.min(mejorNanos, System.nanoTime() - inicio);
+        }
+
+        double estimadoMs = mejorNanos / 1_000_000.0;
+        int coste = costeMinimo;
+        while (coste < costeMaximo && estimadoMs * 2 <= presupuestoMs) {
+            estimadoMs *= 2;
+            coste++;
+        }
+
+        log.info("Coste de BCrypt calibrado: {} (~{} ms por hash, presupuesto {} ms)",
+                coste, Math.round(estimadoMs), presupuestoMs);
+        return coste;
+    }
+}
@@ -1,14 +1,13 @@
 package com.gestioneventos.cofira.security;
 
-import com.gestioneventos.cofira.repositories.TokenRevocadoRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -26,23 +25,38 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private UserDetailsServiceImpl userDetailsService;
 
     @Autowired
-    private TokenRevocadoRepository tokenRevocadoRepository;
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocadoIndex tokenRevocadoIndex;
+
+    @Autowired
+    private EpocaTokenCache epocaTokenCache;
+
+    @Value("${cofira.security.principal-source:cache}")
+    private OrigenPrincipal origenPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            // Se verifica y decodifica el token una sola vez por petición
+            JwtClaims claims = jwt != null ? jwtUtils.verifyAndDecode(jwt).orElse(null) : null;
+            if (claims != null) {
                 // Verificar si el token está en la blacklist
-                String jti = jwtUtils.getJtiFromJwtToken(jwt);
-                if (tokenRevocadoRepository.existsByJti(jti)) {
+                if (tokenRevocadoIndex.estaRevocado(claims.jti())) {
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetailsImpl userDetails = resolverPrincipal(claims);
+
+                // Token emitido antes del último "cerrar todas las sesiones", del último cambio de rol o del borrado
+                if (!epocaTokenCache.esVigente(userDetails.getId(), claims.epocaToken())) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -57,6 +71,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetailsImpl resolverPrincipal(JwtClaims claims) {
+        // Los tokens emitidos antes de incluir el claim "id" no bastan para reconstruir el principal ni para
+        // comprobar la época: el usuario se lee siempre de la base de datos, sin caché, en cualquier modo
+        if (claims.userId() == null || origenPrincipal == OrigenPrincipal.DATABASE) {
+            return (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.subject());
+        }
+        if (origenPrincipal == OrigenPrincipal.TOKEN) {
+            return UserDetailsImpl.fromClaims(claims);
+        }
+        return userDetailsCache.get(claims.subject());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
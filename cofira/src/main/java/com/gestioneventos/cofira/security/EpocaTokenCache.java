@@ -0,0 +1,53 @@
+package com.gestioneventos.cofira.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caché userId -> época de tokens vigente. Permite comprobar en O(1) si un JWT sigue siendo válido
+ * sin consultar la base de datos, por mucho historial de logouts que se acumule.
+ * <p>
+ * El TTL limita cuánto tarda en verse un "cerrar todas las sesiones" hecho desde otra instancia.
+ */
+@Component
+public class EpocaTokenCache {
+
+    // Un usuario eliminado no tiene época: ningún token suyo es válido
+    private static final long USUARIO_INEXISTENTE = Long.MAX_VALUE;
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<Long, Long> epocas;
+
+    public EpocaTokenCache(UsuarioRepository usuarioRepository,
+                           @Value("${cofira.security.token-epoch-cache.ttl-seconds:60}") long ttlSegundos,
+                           @Value("${cofira.security.token-epoch-cache.max-size:100000}") long tamanoMaximo) {
+        this.usuarioRepository = usuarioRepository;
+        this.epocas = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(tamanoMaximo)
+                .build();
+    }
+
+    public boolean esVigente(Long userId, long epocaToken) {
+        return epocaToken >= getEpoca(userId);
+    }
+
+    public long getEpoca(Long userId) {
+        return epocas.get(userId, id -> usuarioRepository.findEpocaTokenById(id).orElse(USUARIO_INEXISTENTE));
+    }
+
+    public void actualizar(Long userId, long epoca) {
+        epocas.put(userId, epoca);
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            epocas.invalidate(userId);
+        }
+    }
+}
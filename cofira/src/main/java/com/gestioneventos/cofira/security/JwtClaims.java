@@ -0,0 +1,22 @@
+package com.gestioneventos.cofira.security;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Vista inmutable de los claims de un JWT ya verificado.
+ * Se obtiene con {@link JwtUtils#verifyAndDecode(String)} para no volver a parsear el token.
+ */
+public record JwtClaims(Long userId, String subject, String jti, List<String> roles, String email,
+                        long epocaToken, Date expiration) {
+
+    public JwtClaims {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+        expiration = expiration == null ? null : new Date(expiration.getTime());
+    }
+
+    @Override
+    public Date expiration() {
+        return expiration == null ? null : new Date(expiration.getTime());
+    }
+}
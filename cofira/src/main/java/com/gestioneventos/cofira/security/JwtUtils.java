@@ -6,79 +6,112 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
 
-    @Value("${cofira.jwt.secret}")
-    private String jwtSecret;
+    private final int jwtExpirationMs;
 
-    @Value("${cofira.jwt.expiration}")
-    private int jwtExpirationMs;
+    // La clave y el parser son inmutables y thread-safe: se construyen una sola vez al arrancar
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public JwtUtils(@Value("${cofira.jwt.secret}") String jwtSecret,
+                    @Value("${cofira.jwt.expiration}") int jwtExpirationMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+    }
 
-        String authorities = authentication.getAuthorities().stream()
+    public String generateJwtToken(UserDetailsImpl userPrincipal) {
+        String authorities = userPrincipal.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
+                .claim("id", userPrincipal.getId())
                 .claim("roles", authorities)
                 .claim("email", userPrincipal.getEmail())
+                .claim("epoca", userPrincipal.getEpocaToken())
                 .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verifica la firma y la expiración del token y devuelve sus claims en una sola pasada.
+     * Devuelve vacío si el token no es válido.
+     */
+    public Optional<JwtClaims> verifyAndDecode(String token) {
+        try {
+            Claims claims = parseClaims(token);
+            Number userId = claims.get("id", Number.class);
+            // Los tokens sin claim "epoca" se emitieron antes de existir la época: equivalen a la época 0
+            Number epocaToken = claims.get("epoca", Number.class);
+            return Optional.of(new JwtClaims(
+                    userId != null ? userId.longValue() : null,
+                    claims.getSubject(),
+                    claims.getId(),
+                    parseRoles(claims.get("roles", String.class)),
+                    claims.get("email", String.class),
+                    epocaToken != null ? epocaToken.longValue() : 0L,
+                    claims.getExpiration()
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String getJtiFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getId();
+        return parseClaims(token).getId();
     }
 
     public Date getExpirationFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getExpiration();
+        return parseClaims(token).getExpiration();
     }
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
+            parseClaims(authToken);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    private Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    private List<String> parseRoles(String roles) {
+        if (!StringUtils.hasText(roles)) {
+            return List.of();
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,13 @@
+package com.gestioneventos.cofira.security;
+
+/**
+ * De dónde obtiene AuthTokenFilter el principal una vez verificado el JWT.
+ */
+public enum OrigenPrincipal {
+    /** Directamente de los claims del token, sin acceder a la base de datos. */
+    TOKEN,
+    /** De {@link UserDetailsCache}: usuario cargado de la base de datos con un TTL corto. */
+    CACHE,
+    /** De la base de datos en cada petición. */
+    DATABASE
+}
@@ -0,0 +1,109 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool dedicado y acotado para el hash y la verificación de contraseñas.
+ * <p>
+ * BCrypt es muy costoso en CPU: ejecutándolo en los hilos de Tomcat, una ráfaga de logins podía ocupar
+ * todos los workers. Aquí se limita la concurrencia y la cola; si el pool está saturado o la espera supera
+ * el máximo configurado se lanza {@link ServicioSaturadoException} (503) en lugar de esperar indefinidamente.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final String MENSAJE_SATURADO =
+            "El servicio de autenticación está saturado, inténtalo de nuevo en unos segundos";
+
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaMs;
+    private final Timer tiempoEspera;
+    private final Counter rechazos;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${cofira.password-hashing.max-concurrency:2}") int maxConcurrencia,
+                                   @Value("${cofira.password-hashing.queue-capacity:50}") int capacidadCola,
+                                   @Value("${cofira.password-hashing.max-wait-ms:2000}") long esperaMaximaMs) {
+        AtomicInteger contadorHilos = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrencia, maxConcurrencia,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                runnable -> {
+                    Thread hilo = new Thread(runnable, "password-hashing-" + contadorHilos.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        Gauge.builder("cofira.password_hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Operaciones de hash de contraseñas esperando en cola")
+                .register(meterRegistry);
+        Gauge.builder("cofira.password_hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de hash de contraseñas en ejecución")
+                .register(meterRegistry);
+        this.tiempoEspera = Timer.builder("cofira.password_hashing.wait")
+                .description("Tiempo en cola antes de empezar el hash de la contraseña")
+                .register(meterRegistry);
+        this.rechazos = Counter.builder("cofira.password_hashing.rejected")
+                .description("Operaciones rechazadas por saturación del pool")
+                .register(meterRegistry);
+    }
+
+    public <T> T ejecutar(Callable<T> tarea) {
+        long encolado = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                tiempoEspera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return tarea.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new ServicioSaturadoException(MENSAJE_SATURADO);
+        }
+
+        try {
+            return future.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Las tareas canceladas seguirían ocupando la cola hasta que un hilo las descartase
+            future.cancel(true);
+            executor.purge();
+            rechazos.increment();
+            throw new ServicioSaturadoException(MENSAJE_SATURADO);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            executor.purge();
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException(MENSAJE_SATURADO);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,130 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.entities.TokenRevocado;
+import com.gestioneventos.cofira.repositories.TokenRevocadoRepository;
+import com.gestioneventos.cofira.utils.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de los tokens revocados (blacklist) para no consultar la base de datos en cada petición.
+ * <p>
+ * Combina un filtro de Bloom, que responde los negativos sin ir a la base de datos, con un mapa exacto
+ * jti -> expiración. Solo se consulta {@code revoked_tokens} cuando el filtro da un posible positivo que
+ * no está en el mapa. Las entradas se eliminan al llegar a su {@link TokenRevocado#getExpiresAt()}.
+ * <p>
+ * Los logouts hechos en otras instancias no pasan por {@link #registrar}: cada instancia relee cada pocos segundos
+ * las filas con {@code revoked_at} reciente. La ventana se solapa con la lectura anterior para cubrir transacciones
+ * que confirman tarde y relojes algo desfasados entre instancias; releer un token ya conocido no cambia nada.
+ */
+@Component
+public class TokenRevocadoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocadoIndex.class);
+
+    static final Duration SOLAPAMIENTO_SINCRONIZACION = Duration.ofMinutes(1);
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+    private final int capacidadEsperada;
+    private final double tasaFalsosPositivos;
+
+    private final Map<String, LocalDateTime> revocados = new ConcurrentHashMap<>();
+    private volatile BloomFilter filtro;
+    private volatile boolean inicializado = false;
+    private volatile LocalDateTime ultimaSincronizacion;
+
+    public TokenRevocadoIndex(TokenRevocadoRepository tokenRevocadoRepository,
+                              @Value("${cofira.revoked-tokens.index.expected-insertions:100000}") int capacidadEsperada,
+                              @Value("${cofira.revoked-tokens.index.false-positive-rate:0.01}") double tasaFalsosPositivos) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+        this.capacidadEsperada = capacidadEsperada;
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        this.filtro = new BloomFilter(capacidadEsperada, tasaFalsosPositivos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        synchronized (this) {
+            for (TokenRevocado token : tokenRevocadoRepository.findByExpiresAtAfter(ahora)) {
+                revocados.put(token.getJti(), token.getExpiresAt());
+                filtro.put(token.getJti());
+            }
+            ultimaSincronizacion = ahora;
+            inicializado = true;
+        }
+        log.info("Índice de tokens revocados cargado con {} entradas", revocados.size());
+    }
+
+    // Incorpora los tokens revocados desde la última lectura, incluidos los de logouts en otras instancias
+    @Scheduled(fixedDelayString = "${cofira.revoked-tokens.index.sync-interval-ms:10000}")
+    public void sincronizar() {
+        if (!inicializado) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<TokenRevocado> recientes = tokenRevocadoRepository.findByRevokedAtAfterAndExpiresAtAfter(
+                ultimaSincronizacion.minus(SOLAPAMIENTO_SINCRONIZACION), ahora);
+        synchronized (this) {
+            for (TokenRevocado token : recientes) {
+                revocados.put(token.getJti(), token.getExpiresAt());
+                filtro.put(token.getJti());
+            }
+        }
+        ultimaSincronizacion = ahora;
+    }
+
+    public boolean estaRevocado(String jti) {
+        // Hasta que termine la carga inicial no podemos fiarnos de los negativos
+        if (!inicializado) {
+            return tokenRevocadoRepository.existsByJti(jti);
+        }
+        if (!filtro.mightContain(jti)) {
+            return false;
+        }
+        if (revocados.containsKey(jti)) {
+            return true;
+        }
+        // Posible falso positivo del filtro: lo confirma la base de datos
+        return tokenRevocadoRepository.existsByJti(jti);
+    }
+
+    /**
+     * Registra un token revocado. Se llama de forma síncrona desde el logout,
+     * después de guardarlo en {@code revoked_tokens}.
+     */
+    public synchronized void registrar(String jti, LocalDateTime expiresAt) {
+        revocados.put(jti, expiresAt);
+        filtro.put(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${cofira.revoked-tokens.index.evict-interval-ms:300000}")
+    public void eliminarExpirados() {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (revocados.values().removeIf(expiresAt -> expiresAt.isBefore(ahora))) {
+            reconstruirFiltro();
+        }
+    }
+
+    // Un filtro de Bloom no admite borrados: se reconstruye con las entradas que siguen vigentes
+    private synchronized void reconstruirFiltro() {
+        BloomFilter nuevo = new BloomFilter(Math.max(capacidadEsperada, revocados.size() * 2), tasaFalsosPositivos);
+        revocados.keySet().forEach(nuevo::put);
+        filtro = nuevo;
+    }
+
+    int size() {
+        return revocados.size();
+    }
+}
@@ -0,0 +1,43 @@
+package com.gestioneventos.cofira.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caché acotada y con TTL corto de los usuarios cargados por {@link UserDetailsServiceImpl}.
+ * UsuarioService la invalida al modificar o eliminar un usuario para que los cambios se apliquen enseguida.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, UserDetailsImpl> cache;
+
+    public UserDetailsCache(UserDetailsServiceImpl userDetailsService,
+                            @Value("${cofira.security.user-cache.ttl-seconds:30}") long ttlSegundos,
+                            @Value("${cofira.security.user-cache.max-size:10000}") long tamanoMaximo) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(tamanoMaximo)
+                .build();
+    }
+
+    public UserDetailsImpl get(String username) {
+        return cache.get(username, key -> (UserDetailsImpl) userDetailsService.loadUserByUsername(key));
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
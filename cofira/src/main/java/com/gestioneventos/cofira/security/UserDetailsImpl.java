@@ -1,6 +1,7 @@
 package com.gestioneventos.cofira.security;
 
 import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.repositories.CredencialesUsuario;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
@@ -9,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
@@ -18,6 +20,13 @@ public class UserDetailsImpl implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    // Época de tokens del usuario en el momento de cargarlo; se copia al JWT al emitirlo
+    private long epocaToken;
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, 0L);
+    }
 
     public static UserDetailsImpl build(Usuario usuario) {
         GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + usuario.getRol().name());
@@ -27,7 +36,38 @@ public class UserDetailsImpl implements UserDetails {
                 usuario.getUsername(),
                 usuario.getEmail(),
                 usuario.getPassword(),
-                Collections.singletonList(authority)
+                Collections.singletonList(authority),
+                usuario.getEpocaToken() != null ? usuario.getEpocaToken() : 0L
+        );
+    }
+
+    public static UserDetailsImpl build(CredencialesUsuario credenciales) {
+        GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + credenciales.getRol().name());
+
+        return new UserDetailsImpl(
+                credenciales.getId(),
+                credenciales.getUsername(),
+                credenciales.getEmail(),
+                credenciales.getPassword(),
+                Collections.singletonList(authority),
+                credenciales.getEpocaToken() != null ? credenciales.getEpocaToken() : 0L
+        );
+    }
+
+    /**
+     * Reconstruye el principal a partir de los claims de un token ya verificado, sin acceder a la base de datos.
+     * No incluye la contraseña.
+     */
+    public static UserDetailsImpl fromClaims(JwtClaims claims) {
+        return new UserDetailsImpl(
+                claims.userId(),
+                claims.subject(),
+                claims.email(),
+                null,
+                claims.roles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList()),
+                claims.epocaToken()
         );
     }
 
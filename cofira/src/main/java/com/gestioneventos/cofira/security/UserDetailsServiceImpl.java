@@ -1,26 +1,41 @@
 package com.gestioneventos.cofira.security;
 
-import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.repositories.CredencialesUsuario;
 import com.gestioneventos.cofira.repositories.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByUsername(username)
+        CredencialesUsuario credenciales = usuarioRepository.findCredencialesByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
-        return UserDetailsImpl.build(usuario);
+        return UserDetailsImpl.build(credenciales);
+    }
+
+    /**
+     * Guarda el nuevo hash cuando DaoAuthenticationProvider detecta, tras un login correcto,
+     * que la contraseña almacenada usa un formato o coste distinto del actual.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepository.actualizarPassword(user.getUsername(), newPassword);
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        userDetails.setPassword(newPassword);
+        return userDetails;
     }
 }
@@ -0,0 +1,269 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import com.gestioneventos.cofira.repositories.AlimentoRepository;
+import com.gestioneventos.cofira.utils.IndicePrefijos;
+import org.slf4j.Logger;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de ingredientes para filtrar el catálogo por alergias.
+ * <p>
+ * Cada alimento ocupa una posición consecutiva y cada ingrediente normalizado tiene un {@link RoaringBitmap} con
+ * las posiciones de los alimentos que lo contienen: las claves poco frecuentes, que son la mayoría, ocupan unos
+ * pocos bytes en lugar de un bit por alimento del catálogo. Se indexan las secuencias de palabras consecutivas de cada
+ * ingrediente (hasta {@link #MAXIMO_PALABRAS_CLAVE}), así que la alergia "nueces" excluye "nueces pecanas" y
+ * "frutos secos" excluye "mezcla de frutos secos". Los alimentos seguros para un conjunto de alergias son
+ * los presentes menos (AND-NOT) los bitmaps de cada alergia; la página empieza en la posición que devuelve
+ * {@code select(offset)}, sin recorrer las anteriores.
+ * Se carga al arrancar y se actualiza alimento a alimento con {@link AlimentoModificadoEvent}.
+ */
+@Component
+public class AlimentoAlergenosIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AlimentoAlergenosIndex.class);
+
+    // Una alergia más larga se resuelve con el AND de sus ventanas de este tamaño: puede excluir de más, nunca de menos
+    static final int MAXIMO_PALABRAS_CLAVE = 4;
+
+    private final AlimentoRepository alimentoRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializa lectura y aplicación de cada cambio: una lectura anterior nunca se aplica después de una posterior
+    private final Object actualizando = new Object();
+    private Estado estado = new Estado();
+    // Alimentos modificados mientras cargar() lee el catálogo; null fuera de una carga
+    private Set<Long> modificadosDuranteCarga;
+
+    public AlimentoAlergenosIndex(AlimentoRepository alimentoRepository) {
+        this.alimentoRepository = alimentoRepository;
+    }
+
+    /**
+     * Reconstruye el índice completo. Los cambios que llegan mientras se lee el catálogo se aplican al estado
+     * anterior, que se descarta al sustituirlo, así que esos alimentos se vuelven a leer al terminar la carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void cargar() {
+        lock.writeLock().lock();
+        try {
+            modificadosDuranteCarga = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Long> pendientes;
+        try {
+            // La recarga completa también compacta las posiciones que dejaron libres los alimentos eliminados
+            Estado nuevo = new Estado();
+            for (Alimento alimento : alimentoRepository.findAllConIngredientes()) {
+                nuevo.indexar(alimento);
+            }
+            nuevo.compactar();
+
+            lock.writeLock().lock();
+            try {
+                estado = nuevo;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de alérgenos cargado: {} alimentos, {} ingredientes",
+                    nuevo.presentes.getCardinality(), nuevo.posicionesPorClave.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendientes = modificadosDuranteCarga;
+                modificadosDuranteCarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        pendientes.forEach(this::actualizar);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarAlimento(AlimentoModificadoEvent evento) {
+        if (evento.alimentoId() == null) {
+            return;
+        }
+        actualizar(evento.alimentoId());
+    }
+
+    /**
+     * Página de ids de los alimentos indexados que no contienen ninguna de las alergias, en orden de id.
+     * Un alimento que todavía no está en el índice no se considera seguro.
+     *
+     * @throws IllegalArgumentException si la página pide un orden distinto de id ascendente
+     */
+    public Page<Long> idsSeguros(Collection<String> alergias, Pageable pageable) {
+        for (Sort.Order orden : pageable.getSort()) {
+            if (!orden.getProperty().equals("id") || orden.isDescending()) {
+                throw new IllegalArgumentException("Los alimentos seguros solo se pueden ordenar por id ascendente");
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap seguros = estado.presentes.clone();
+            for (String alergia : alergias) {
+                RoaringBitmap conAlergeno = estado.posicionesConAlergia(IndicePrefijos.palabras(alergia));
+                if (conAlergeno != null) {
+                    seguros.andNot(conAlergeno);
+                }
+            }
+
+            long total = seguros.getLongCardinality();
+            List<Long> ids = new ArrayList<>(pageable.getPageSize());
+            if (pageable.getOffset() < total) {
+                PeekableIntIterator posiciones = seguros.getIntIterator();
+                posiciones.advanceIfNeeded(seguros.select((int) pageable.getOffset()));
+                while (ids.size() < pageable.getPageSize() && posiciones.hasNext()) {
+                    ids.add(estado.idPorPosicion[posiciones.next()]);
+                }
+            }
+            return new PageImpl<>(ids, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // La lectura queda fuera del bloqueo de escritura para no frenar las consultas; el orden lo da "actualizando"
+    private void actualizar(Long alimentoId) {
+        synchronized (actualizando) {
+            Alimento alimento = alimentoRepository.findConIngredientesById(alimentoId).orElse(null);
+
+            lock.writeLock().lock();
+            try {
+                if (modificadosDuranteCarga != null) {
+                    modificadosDuranteCarga.add(alimentoId);
+                }
+                if (alimento != null) {
+                    estado.indexar(alimento);
+                } else {
+                    estado.eliminar(alimentoId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class Estado {
+        private final Map<Long, Integer> posicionPorId = new HashMap<>();
+        // Las posiciones se asignan en el orden de carga (por id) y los alimentos nuevos van al final
+        private long[] idPorPosicion = new long[64];
+        private int numeroPosiciones = 0;
+        private final RoaringBitmap presentes = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> posicionesPorClave = new HashMap<>();
+        private final Map<Long, Set<String>> clavesPorId = new HashMap<>();
+
+        void indexar(Alimento alimento) {
+            Long id = alimento.getId();
+            quitarClaves(id);
+
+            Integer posicion = posicionPorId.get(id);
+            if (posicion == null) {
+                if (numeroPosiciones == idPorPosicion.length) {
+                    idPorPosicion = Arrays.copyOf(idPorPosicion, numeroPosiciones * 2);
+                }
+                posicion = numeroPosiciones++;
+                idPorPosicion[posicion] = id;
+                posicionPorId.put(id, posicion);
+            }
+            presentes.add(posicion);
+
+            Set<String> claves = new HashSet<>();
+            if (alimento.getIngredientes() != null) {
+                for (String ingrediente : alimento.getIngredientes()) {
+                    List<String> palabras = IndicePrefijos.palabras(ingrediente);
+                    for (int inicio = 0; inicio < palabras.size(); inicio++) {
+                        int finMaximo = Math.min(palabras.size(), inicio + MAXIMO_PALABRAS_CLAVE);
+                        for (int fin = inicio + 1; fin <= finMaximo; fin++) {
+                            claves.add(String.join(" ", palabras.subList(inicio, fin)));
+                        }
+                    }
+                }
+            }
+            for (String clave : claves) {
+                posicionesPorClave.computeIfAbsent(clave, c -> new RoaringBitmap()).add(posicion);
+            }
+            clavesPorId.put(id, claves);
+        }
+
+        // La posición del alimento eliminado queda sin usar hasta la siguiente recarga completa
+        void eliminar(Long id) {
+            quitarClaves(id);
+            Integer posicion = posicionPorId.get(id);
+            if (posicion != null) {
+                presentes.remove(posicion);
+            }
+        }
+
+        // Posiciones de los alimentos con la alergia (ya separada en palabras normalizadas); null si no hay ninguno
+        RoaringBitmap posicionesConAlergia(List<String> palabras) {
+            if (palabras.isEmpty()) {
+                return null;
+            }
+            if (palabras.size() <= MAXIMO_PALABRAS_CLAVE) {
+                return posicionesPorClave.get(String.join(" ", palabras));
+            }
+            RoaringBitmap posiciones = null;
+            for (int inicio = 0; inicio + MAXIMO_PALABRAS_CLAVE <= palabras.size(); inicio++) {
+                RoaringBitmap ventana = posicionesPorClave.get(
+                        String.join(" ", palabras.subList(inicio, inicio + MAXIMO_PALABRAS_CLAVE)));
+                if (ventana == null) {
+                    return null;
+                }
+                if (posiciones == null) {
+                    posiciones = ventana.clone();
+                } else {
+                    posiciones.and(ventana);
+                }
+            }
+            return posiciones;
+        }
+
+        // Tras la carga completa: los rangos de posiciones consecutivas pasan a contenedores de tipo run
+        void compactar() {
+            presentes.runOptimize();
+            posicionesPorClave.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private void quitarClaves(Long id) {
+            Set<String> anteriores = clavesPorId.remove(id);
+            Integer posicion = posicionPorId.get(id);
+            if (anteriores == null || posicion == null) {
+                return;
+            }
+            for (String clave : anteriores) {
+                RoaringBitmap posiciones = posicionesPorClave.get(clave);
+                posiciones.remove(posicion);
+                if (posiciones.isEmpty()) {
+                    posicionesPorClave.remove(clave);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de los {@link AlimentoDTO} del catálogo por id.
+ * <p>
+ * El catálogo cambia pocas veces al día y se lee en cada pantalla de planificación de comidas. Se invalida con
+ * {@link AlimentoModificadoEvent} después del commit del cambio; el TTL solo cubre cambios hechos fuera de
+ * AlimentoService. Los aciertos y fallos se publican como métricas cache.gets (cache=alimentos.por_id).
+ */
+@Component
+public class AlimentoCatalogoCache {
+
+    private final Cache<Long, AlimentoDTO> porId;
+
+    public AlimentoCatalogoCache(MeterRegistry meterRegistry,
+                                 @Value("${cofira.alimentos.cache.max-size:10000}") long tamanoMaximo,
+                                 @Value("${cofira.alimentos.cache.ttl-seconds:600}") long ttlSegundos) {
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "alimentos.por_id");
+    }
+
+    // Si el cargador lanza una excepción (alimento inexistente) no se guarda nada
+    public AlimentoDTO obtenerPorId(Long id, Function<Long, AlimentoDTO> cargador) {
+        return porId.get(id, cargador);
+    }
+
+    // Los ids que faltan en la caché se piden juntos al cargador; los que no devuelve no se guardan
+    public Map<Long, AlimentoDTO> obtenerPorIds(Collection<Long> ids,
+                                                Function<Set<? extends Long>, Map<Long, AlimentoDTO>> cargador) {
+        return porId.getAll(ids, cargador);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarAlimento(AlimentoModificadoEvent evento) {
+        if (evento.alimentoId() != null) {
+            porId.invalidate(evento.alimentoId());
+        }
+    }
+
+    public void invalidarTodo() {
+        porId.invalidateAll();
+    }
+}
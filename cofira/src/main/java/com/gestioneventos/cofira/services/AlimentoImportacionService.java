@@ -0,0 +1,350 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gestioneventos.cofira.dto.alimento.CrearAlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.ImportacionAlimentosDTO;
+import com.gestioneventos.cofira.dto.importacion.ErrorImportacionDTO;
+import com.gestioneventos.cofira.enums.FormatoImportacion;
+import com.gestioneventos.cofira.utils.Csv;
+import com.gestioneventos.cofira.utils.IndicePrefijos;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva del catálogo de alimentos desde CSV o NDJSON.
+ * <p>
+ * El fichero se lee en streaming por bloques. Cada bloque se parsea y normaliza en paralelo en un
+ * {@link ForkJoinPool} propio mientras el hilo de la petición escribe el bloque anterior, de modo que la
+ * lectura, el parseo y la escritura se solapan. La escritura es secuencial: descarta los nombres que ya
+ * existen (comparados sin mayúsculas ni tildes) e inserta alimentos e ingredientes con dos batch JDBC por
+ * bloque, con ids reservados a la secuencia de Hibernate.
+ */
+@Service
+public class AlimentoImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlimentoImportacionService.class);
+
+    // Debe coincidir con el INCREMENT BY de V5 y el allocationSize de Alimento: cada nextval reserva ese bloque de ids
+    static final int INCREMENTO_SECUENCIA = 50;
+    private static final int LONGITUD_MAXIMA = 255;
+    private static final String SEPARADOR_INGREDIENTES = ";";
+
+    private static final String SQL_NOMBRES = "SELECT nombre FROM alimento";
+    private static final String SQL_SIGUIENTE_ID = "SELECT nextval('alimento_id_seq')";
+    private static final String SQL_INSERT_ALIMENTO = "INSERT INTO alimento (id, nombre) VALUES (?, ?)";
+    private static final String SQL_INSERT_INGREDIENTE =
+            "INSERT INTO ingredientes_alimento (alimento_id, ingrediente) VALUES (?, ?)";
+
+    private static final Set<String> COLUMNAS_CSV = Set.of("nombre", "ingredientes");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final AlimentoCatalogoCache alimentoCatalogoCache;
+    private final AlimentoSugerenciasIndex alimentoSugerenciasIndex;
+    private final AlimentoAlergenosIndex alimentoAlergenosIndex;
+    private final ForkJoinPool pool;
+    private final int tamanoBloque;
+    private final int maxErroresDetallados;
+    private final long intervaloProgreso;
+
+    public AlimentoImportacionService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper,
+                                      AlimentoCatalogoCache alimentoCatalogoCache,
+                                      AlimentoSugerenciasIndex alimentoSugerenciasIndex,
+                                      AlimentoAlergenosIndex alimentoAlergenosIndex,
+                                      @Value("${cofira.alimentos.import.parallelism:0}") int paralelismo,
+                                      @Value("${cofira.alimentos.import.batch-size:2000}") int tamanoBloque,
+                                      @Value("${cofira.alimentos.import.max-errors:1000}") int maxErroresDetallados,
+                                      @Value("${cofira.alimentos.import.progress-interval:50000}") long intervaloProgreso) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.alimentoCatalogoCache = alimentoCatalogoCache;
+        this.alimentoSugerenciasIndex = alimentoSugerenciasIndex;
+        this.alimentoAlergenosIndex = alimentoAlergenosIndex;
+        // Pool propio para no ocupar el commonPool que comparten los parallel streams del resto de la aplicación
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+        this.maxErroresDetallados = maxErroresDetallados;
+        this.intervaloProgreso = Math.max(1, intervaloProgreso);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    public ImportacionAlimentosDTO importar(InputStream entrada, FormatoImportacion formato) throws IOException {
+        long inicio = System.nanoTime();
+        ImportacionAlimentosDTO resultado = new ImportacionAlimentosDTO();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        List<String> cabecera = null;
+        long numeroLinea = 0;
+        if (formato == FormatoImportacion.CSV) {
+            cabecera = leerCabecera(reader.readLine());
+            numeroLinea++;
+        }
+        List<String> columnas = cabecera;
+
+        try {
+            Set<String> nombresExistentes = cargarNombresExistentes();
+            long siguienteProgreso = intervaloProgreso;
+
+            ForkJoinTask<List<FilaImportacion>> enCurso = null;
+            List<LineaLeida> bloque = new ArrayList<>(tamanoBloque);
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                bloque.add(new LineaLeida(numeroLinea, linea));
+                if (bloque.size() >= tamanoBloque) {
+                    ForkJoinTask<List<FilaImportacion>> siguiente = parsearEnParalelo(bloque, formato, columnas);
+                    if (enCurso != null) {
+                        escribirBloque(enCurso.join(), nombresExistentes, resultado);
+                    }
+                    enCurso = siguiente;
+                    bloque = new ArrayList<>(tamanoBloque);
+
+                    if (resultado.getFilasProcesadas() >= siguienteProgreso) {
+                        informarProgreso(resultado, inicio);
+                        siguienteProgreso = resultado.getFilasProcesadas() + intervaloProgreso;
+                    }
+                }
+            }
+            if (enCurso != null) {
+                escribirBloque(enCurso.join(), nombresExistentes, resultado);
+            }
+            if (!bloque.isEmpty()) {
+                escribirBloque(parsearEnParalelo(bloque, formato, columnas).join(), nombresExistentes, resultado);
+            }
+        } finally {
+            // Las altas no pasan por AlimentoService: se recargan de una vez la caché y los índices en memoria,
+            // también si la importación se corta a medias con bloques ya confirmados
+            if (resultado.getAlimentosCreados() > 0) {
+                alimentoCatalogoCache.invalidarTodo();
+                alimentoSugerenciasIndex.cargar();
+                alimentoAlergenosIndex.cargar();
+            }
+        }
+
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        resultado.setDuracionMs(duracionMs);
+        resultado.setFilasPorSegundo(resultado.getFilasProcesadas() * 1000.0 / Math.max(1, duracionMs));
+
+        log.info("Importación de alimentos: {} filas, {} creados, {} duplicados, {} rechazadas en {} ms ({} filas/s)",
+                resultado.getFilasProcesadas(), resultado.getAlimentosCreados(), resultado.getDuplicados(),
+                resultado.getFilasRechazadas(), duracionMs, Math.round(resultado.getFilasPorSegundo()));
+        return resultado;
+    }
+
+    private ForkJoinTask<List<FilaImportacion>> parsearEnParalelo(List<LineaLeida> lineas, FormatoImportacion formato,
+                                                                  List<String> cabecera) {
+        return pool.submit(() -> lineas.parallelStream()
+                .map(linea -> parsearLinea(linea, formato, cabecera))
+                .collect(Collectors.toList()));
+    }
+
+    private FilaImportacion parsearLinea(LineaLeida linea, FormatoImportacion formato, List<String> cabecera) {
+        try {
+            CrearAlimentoDTO alimento = formato == FormatoImportacion.CSV
+                    ? parsearCsv(linea.texto(), cabecera)
+                    : parsearNdjson(linea.texto());
+            return new FilaImportacion(linea.numero(), normalizar(alimento), null);
+        } catch (IllegalArgumentException e) {
+            return new FilaImportacion(linea.numero(), null, e.getMessage());
+        }
+    }
+
+    private AlimentoNormalizado normalizar(CrearAlimentoDTO alimento) {
+        String nombre = alimento.getNombre() != null ? alimento.getNombre().trim() : "";
+        String clave = claveNombre(nombre);
+        if (clave.isEmpty()) {
+            throw new IllegalArgumentException("El nombre del alimento no puede estar vacío");
+        }
+        if (nombre.length() > LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("El nombre supera los " + LONGITUD_MAXIMA + " caracteres");
+        }
+
+        // Sin espacios sobrantes, sin vacíos y sin repetir, conservando el orden del fichero
+        Set<String> ingredientes = new LinkedHashSet<>();
+        if (alimento.getIngredientes() != null) {
+            for (String ingrediente : alimento.getIngredientes()) {
+                String limpio = ingrediente != null ? ingrediente.trim().replaceAll("\\s+", " ") : "";
+                if (limpio.length() > LONGITUD_MAXIMA) {
+                    throw new IllegalArgumentException("El ingrediente " + limpio.substring(0, 20)
+                            + "... supera los " + LONGITUD_MAXIMA + " caracteres");
+                }
+                if (!limpio.isEmpty()) {
+                    ingredientes.add(limpio);
+                }
+            }
+        }
+        return new AlimentoNormalizado(nombre, clave, List.copyOf(ingredientes));
+    }
+
+    private void escribirBloque(List<FilaImportacion> filas, Set<String> nombresExistentes,
+                                ImportacionAlimentosDTO resultado) {
+        List<AlimentoNormalizado> nuevos = new ArrayList<>(filas.size());
+        for (FilaImportacion fila : filas) {
+            resultado.setFilasProcesadas(resultado.getFilasProcesadas() + 1);
+            if (fila.error() != null) {
+                rechazar(resultado, fila.numeroLinea(), fila.error());
+            } else if (!nombresExistentes.add(fila.alimento().clave())) {
+                resultado.setDuplicados(resultado.getDuplicados() + 1);
+            } else {
+                nuevos.add(fila.alimento());
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+
+        long[] ids = reservarIds(nuevos.size());
+        List<Object[]> alimentos = new ArrayList<>(nuevos.size());
+        List<Object[]> ingredientes = new ArrayList<>();
+        for (int i = 0; i < nuevos.size(); i++) {
+            AlimentoNormalizado alimento = nuevos.get(i);
+            alimentos.add(new Object[]{ids[i], alimento.nombre()});
+            for (String ingrediente : alimento.ingredientes()) {
+                ingredientes.add(new Object[]{ids[i], ingrediente});
+            }
+        }
+
+        // Alimentos e ingredientes de un bloque se confirman juntos
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(SQL_INSERT_ALIMENTO, alimentos, new int[]{Types.BIGINT, Types.VARCHAR});
+            if (!ingredientes.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_INSERT_INGREDIENTE, ingredientes, new int[]{Types.BIGINT, Types.VARCHAR});
+            }
+        });
+        resultado.setAlimentosCreados(resultado.getAlimentosCreados() + nuevos.size());
+        resultado.setIngredientesCreados(resultado.getIngredientesCreados() + ingredientes.size());
+    }
+
+    /**
+     * Reserva {@code cantidad} ids con el mismo criterio que el optimizador pooled de Hibernate: cada nextval
+     * devuelve el extremo superior de un bloque de {@link #INCREMENTO_SECUENCIA} ids que nadie más usa.
+     */
+    private long[] reservarIds(int cantidad) {
+        long[] ids = new long[cantidad];
+        int asignados = 0;
+        while (asignados < cantidad) {
+            Long maximo = jdbcTemplate.queryForObject(SQL_SIGUIENTE_ID, Long.class);
+            // El primer valor de una secuencia nueva no tiene ids por debajo
+            for (long id = Math.max(1, maximo - INCREMENTO_SECUENCIA + 1); id <= maximo && asignados < cantidad; id++) {
+                ids[asignados++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private Set<String> cargarNombresExistentes() {
+        Set<String> nombres = new HashSet<>();
+        jdbcTemplate.query(SQL_NOMBRES, rs -> {
+            nombres.add(claveNombre(rs.getString(1)));
+        });
+        return nombres;
+    }
+
+    // "Pan  Integral" y "pan integral" son el mismo alimento
+    private static String claveNombre(String nombre) {
+        return String.join(" ", IndicePrefijos.palabras(nombre));
+    }
+
+    private void informarProgreso(ImportacionAlimentosDTO resultado, long inicio) {
+        double segundos = Math.max(1, (System.nanoTime() - inicio) / 1_000_000) / 1000.0;
+        log.info("Importación de alimentos en curso: {} filas, {} creados, {} filas/s",
+                resultado.getFilasProcesadas(), resultado.getAlimentosCreados(),
+                Math.round(resultado.getFilasProcesadas() / segundos));
+    }
+
+    private List<String> leerCabecera(String linea) {
+        if (linea == null || linea.isBlank()) {
+            throw new IllegalArgumentException("El CSV debe empezar con una cabecera: nombre[,ingredientes]");
+        }
+        List<String> cabecera = Csv.parsearLinea(linea).stream()
+                .map(columna -> columna.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        for (String columna : cabecera) {
+            if (!COLUMNAS_CSV.contains(columna)) {
+                throw new IllegalArgumentException("Columna desconocida en la cabecera del CSV: " + columna);
+            }
+        }
+        if (!cabecera.contains("nombre")) {
+            throw new IllegalArgumentException("La cabecera del CSV debe incluir la columna nombre");
+        }
+        return cabecera;
+    }
+
+    // Los ingredientes van en una sola columna separados por ";"
+    private CrearAlimentoDTO parsearCsv(String linea, List<String> cabecera) {
+        List<String> campos = Csv.parsearLinea(linea);
+        if (campos.size() != cabecera.size()) {
+            throw new IllegalArgumentException("Se esperaban " + cabecera.size() + " columnas y hay " + campos.size());
+        }
+        CrearAlimentoDTO alimento = new CrearAlimentoDTO();
+        for (int i = 0; i < cabecera.size(); i++) {
+            if (cabecera.get(i).equals("nombre")) {
+                alimento.setNombre(campos.get(i));
+            } else {
+                alimento.setIngredientes(Arrays.asList(campos.get(i).split(SEPARADOR_INGREDIENTES)));
+            }
+        }
+        return alimento;
+    }
+
+    private CrearAlimentoDTO parsearNdjson(String linea) {
+        try {
+            return objectMapper.readValue(linea, CrearAlimentoDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON no válido: " + e.getOriginalMessage());
+        }
+    }
+
+    private void rechazar(ImportacionAlimentosDTO resultado, long numeroLinea, String mensaje) {
+        resultado.setFilasRechazadas(resultado.getFilasRechazadas() + 1);
+        if (resultado.getErrores().size() < maxErroresDetallados) {
+            resultado.getErrores().add(new ErrorImportacionDTO(numeroLinea, mensaje));
+        } else {
+            resultado.setErroresTruncados(true);
+        }
+    }
+
+    private record LineaLeida(long numero, String texto) {
+    }
+
+    private record AlimentoNormalizado(String nombre, String clave, List<String> ingredientes) {
+    }
+
+    private record FilaImportacion(long numeroLinea, AlimentoNormalizado alimento, String error) {
+    }
+}
@@ -1,45 +1,107 @@
 package com.gestioneventos.cofira.services;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
 import com.gestioneventos.cofira.dto.alimento.CrearAlimentoDTO;
 import com.gestioneventos.cofira.dto.alimento.ModificarAlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.SugerenciaAlimentoDTO;
 import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
 import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
 import com.gestioneventos.cofira.repositories.AlimentoRepository;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.UserDetailsImpl;
+import com.gestioneventos.cofira.utils.BusquedaTexto;
 
 @Service
 public class AlimentoService {
     private static final String ALIMENTO_NO_ENCONTRADO = "Alimento no encontrado con id ";
 
     private final AlimentoRepository alimentoRepository;
+    private final AlimentoCatalogoCache alimentoCatalogoCache;
+    private final AlimentoSugerenciasIndex alimentoSugerenciasIndex;
+    private final AlimentoAlergenosIndex alimentoAlergenosIndex;
+    private final UsuarioRepository usuarioRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AlimentoService(AlimentoRepository alimentoRepository) {
+    public AlimentoService(AlimentoRepository alimentoRepository,
+                           AlimentoCatalogoCache alimentoCatalogoCache,
+                           AlimentoSugerenciasIndex alimentoSugerenciasIndex,
+                           AlimentoAlergenosIndex alimentoAlergenosIndex,
+                           UsuarioRepository usuarioRepository,
+                           ApplicationEventPublisher eventPublisher) {
         this.alimentoRepository = alimentoRepository;
+        this.alimentoCatalogoCache = alimentoCatalogoCache;
+        this.alimentoSugerenciasIndex = alimentoSugerenciasIndex;
+        this.alimentoAlergenosIndex = alimentoAlergenosIndex;
+        this.usuarioRepository = usuarioRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<AlimentoDTO> listarAlimentos(String nombre) {
-        List<Alimento> alimentos;
-        
-        if (nombre != null && !nombre.trim().isEmpty()) {
-            alimentos = alimentoRepository.findByNombreContainingIgnoreCase(nombre);
-        } else {
-            alimentos = alimentoRepository.findAll();
-        }
-        
-        return alimentos.stream()
+    // Listado paginado: una consulta para la página, otra para el total y los ingredientes de la página por lotes
+    @Transactional(readOnly = true)
+    public Page<AlimentoDTO> listarAlimentos(String nombre, Pageable pageable) {
+        Pageable pagina = acotarPagina(pageable);
+
+        Page<Alimento> alimentos = (nombre == null || nombre.trim().isEmpty())
+                ? alimentoRepository.findAll(pagina)
+                : alimentoRepository.findByNombrePaginado(BusquedaTexto.patronContiene(nombre), pagina);
+        return alimentos.map(this::convertirADTO);
+    }
+
+    // Búsqueda por nombre: como mucho "limite" alimentos ordenados por parecido con el nombre buscado
+    @Transactional(readOnly = true)
+    public List<AlimentoDTO> buscarAlimentos(String nombre, Integer limite) {
+        return alimentoRepository.buscarPorNombre(BusquedaTexto.patronContiene(nombre), nombre.trim(),
+                        Limit.of(BusquedaTexto.limitar(limite)))
+                .stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
 
+    // Autocompletado mientras se escribe: se responde desde el índice en memoria, sin consultar la base de datos
+    public List<SugerenciaAlimentoDTO> sugerirAlimentos(String consulta, Integer limite) {
+        return alimentoSugerenciasIndex.sugerir(consulta, limite);
+    }
+
+    // Sin alergias explícitas se usan las del usuario autenticado. El índice decide qué ids entran en la página;
+    // solo esos alimentos se leen, desde la caché por id o con una única consulta para los que falten
+    public Page<AlimentoDTO> listarAlimentosSeguros(List<String> alergias, Pageable pageable) {
+        List<String> excluir = alergias != null ? alergias : alergiasUsuarioActual();
+        Page<Long> ids = alimentoAlergenosIndex.idsSeguros(excluir, acotarPagina(pageable));
+
+        Map<Long, AlimentoDTO> alimentos = alimentoCatalogoCache.obtenerPorIds(ids.getContent(),
+                faltan -> alimentoRepository.findConIngredientesByIdIn(new ArrayList<>(faltan))
+                        .stream()
+                        .collect(Collectors.toMap(Alimento::getId, this::convertirADTO)));
+        // Un alimento borrado después de consultar el índice no sale en la página
+        List<AlimentoDTO> contenido = ids.getContent().stream()
+                .map(alimentos::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(contenido, ids.getPageable(), ids.getTotalElements());
+    }
+
     public AlimentoDTO obtenerAlimento(Long id) {
-        Alimento alimento = alimentoRepository.findById(id)
-                .orElseThrow(() -> new RecursoNoEncontradoException(ALIMENTO_NO_ENCONTRADO + id));
-        return convertirADTO(alimento);
+        return alimentoCatalogoCache.obtenerPorId(id, clave -> alimentoRepository.findConIngredientesById(clave)
+                .map(this::convertirADTO)
+                .orElseThrow(() -> new RecursoNoEncontradoException(ALIMENTO_NO_ENCONTRADO + clave)));
     }
 
     public AlimentoDTO crearAlimento(CrearAlimentoDTO dto) {
@@ -48,6 +110,7 @@ public class AlimentoService {
         alimento.setIngredientes(dto.getIngredientes());
 
         Alimento guardado = alimentoRepository.save(alimento);
+        eventPublisher.publishEvent(new AlimentoModificadoEvent(guardado.getId()));
         return convertirADTO(guardado);
     }
 
@@ -63,6 +126,7 @@ public class AlimentoService {
         }
 
         Alimento actualizado = alimentoRepository.save(alimento);
+        eventPublisher.publishEvent(new AlimentoModificadoEvent(id));
         return convertirADTO(actualizado);
     }
 
@@ -70,13 +134,29 @@ public class AlimentoService {
         Alimento alimento = alimentoRepository.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoException(ALIMENTO_NO_ENCONTRADO + id));
         alimentoRepository.delete(alimento);
+        eventPublisher.publishEvent(new AlimentoModificadoEvent(id));
+    }
+
+    private Pageable acotarPagina(Pageable pageable) {
+        return pageable.getPageSize() > BusquedaTexto.LIMITE_MAXIMO
+                ? PageRequest.of(pageable.getPageNumber(), BusquedaTexto.LIMITE_MAXIMO, pageable.getSort())
+                : pageable;
+    }
+
+    private List<String> alergiasUsuarioActual() {
+        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return usuarioRepository.findAlergiasById(userDetails.getId());
     }
 
     private AlimentoDTO convertirADTO(Alimento alimento) {
         AlimentoDTO dto = new AlimentoDTO();
         dto.setId(alimento.getId());
         dto.setNombre(alimento.getNombre());
-        dto.setIngredientes(alimento.getIngredientes());
+        // Copia inmutable: el DTO puede acabar en la caché y compartirse entre peticiones
+        dto.setIngredientes(alimento.getIngredientes() != null
+                ? Collections.unmodifiableList(new ArrayList<>(alimento.getIngredientes()))
+                : null);
         return dto;
     }
 }
@@ -0,0 +1,233 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.alimento.SugerenciaAlimentoDTO;
+import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import com.gestioneventos.cofira.repositories.AlimentoRepository;
+import com.gestioneventos.cofira.utils.IndicePrefijos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria para el autocompletado de alimentos mientras se escribe.
+ * <p>
+ * Indexa las palabras del nombre y de los ingredientes de cada alimento (sin tildes ni mayúsculas) en dos
+ * {@link IndicePrefijos}. Cada palabra de la consulta tiene que ser prefijo de alguna palabra del alimento;
+ * primero salen los que coinciden por nombre y, entre ellos, los que empiezan por la consulta completa.
+ * Se carga al arrancar y se actualiza alimento a alimento con {@link AlimentoModificadoEvent}.
+ */
+@Component
+public class AlimentoSugerenciasIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AlimentoSugerenciasIndex.class);
+
+    public static final int LIMITE_POR_DEFECTO = 10;
+    public static final int LIMITE_MAXIMO = 50;
+    // Tope de ids que se sacan del rango del término más selectivo: un prefijo de una letra no recorre todo el catálogo
+    static final int MAXIMO_CANDIDATOS = 2000;
+
+    private static final Comparator<Candidato> ORDEN = Comparator.comparingInt(Candidato::puntuacion).reversed()
+            .thenComparingInt((Candidato c) -> c.entrada().nombre().length())
+            .thenComparing(c -> c.entrada().nombreNormalizado())
+            .thenComparing(c -> c.entrada().id());
+
+    private final AlimentoRepository alimentoRepository;
+
+    // Lecturas concurrentes; las escrituras (arranque y cambios del catálogo) son raras
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializa lectura y aplicación de cada cambio: una lectura anterior nunca se aplica después de una posterior
+    private final Object actualizando = new Object();
+    private IndicePrefijos nombres = new IndicePrefijos();
+    private IndicePrefijos ingredientes = new IndicePrefijos();
+    private Map<Long, EntradaAlimento> entradas = new HashMap<>();
+    // Alimentos modificados mientras cargar() lee el catálogo; null fuera de una carga
+    private Set<Long> modificadosDuranteCarga;
+
+    public AlimentoSugerenciasIndex(AlimentoRepository alimentoRepository) {
+        this.alimentoRepository = alimentoRepository;
+    }
+
+    /**
+     * Reconstruye el índice completo. Los cambios que llegan mientras se lee el catálogo se aplican al índice
+     * anterior, que se descarta al sustituirlo, así que esos alimentos se vuelven a leer al terminar la carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void cargar() {
+        lock.writeLock().lock();
+        try {
+            modificadosDuranteCarga = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Long> pendientes;
+        try {
+            IndicePrefijos nuevosNombres = new IndicePrefijos();
+            IndicePrefijos nuevosIngredientes = new IndicePrefijos();
+            Map<Long, EntradaAlimento> nuevasEntradas = new HashMap<>();
+            for (Alimento alimento : alimentoRepository.findAllConIngredientes()) {
+                indexar(alimento, nuevosNombres, nuevosIngredientes, nuevasEntradas);
+            }
+
+            lock.writeLock().lock();
+            try {
+                nombres = nuevosNombres;
+                ingredientes = nuevosIngredientes;
+                entradas = nuevasEntradas;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de autocompletado de alimentos cargado: {} alimentos, {} palabras",
+                    nuevasEntradas.size(), nuevosNombres.numeroPalabras() + nuevosIngredientes.numeroPalabras());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendientes = modificadosDuranteCarga;
+                modificadosDuranteCarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        pendientes.forEach(this::actualizar);
+    }
+
+    // Solo se vuelve a leer el alimento modificado
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarAlimento(AlimentoModificadoEvent evento) {
+        if (evento.alimentoId() == null) {
+            return;
+        }
+        actualizar(evento.alimentoId());
+    }
+
+    public List<SugerenciaAlimentoDTO> sugerir(String consulta, Integer limite) {
+        List<String> terminos = IndicePrefijos.palabras(consulta);
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+        int maximo = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        String consultaNormalizada = String.join(" ", terminos);
+
+        // Montículo de los maximo mejores con el peor en la cabeza: cada candidato cuesta O(log maximo)
+        PriorityQueue<Candidato> mejores = new PriorityQueue<>(maximo + 1, ORDEN.reversed());
+        lock.readLock().lock();
+        try {
+            // Los candidatos salen del rango del término más selectivo, primero por nombre y hasta
+            // MAXIMO_CANDIDATOS; los demás términos solo filtran y puntúan mirando las palabras de cada candidato.
+            // Si algún término cabe en el tope, su rango contiene todos los resultados posibles
+            String semilla = terminoMasSelectivo(terminos);
+            if (semilla == null) {
+                return List.of();
+            }
+            Set<Long> iniciales = nombres.buscarPrefijo(semilla, MAXIMO_CANDIDATOS);
+            if (iniciales.size() < MAXIMO_CANDIDATOS) {
+                iniciales.addAll(ingredientes.buscarPrefijo(semilla, MAXIMO_CANDIDATOS - iniciales.size()));
+            }
+            for (Long id : iniciales) {
+                int puntuacion = puntuar(id, terminos);
+                if (puntuacion > 0) {
+                    EntradaAlimento entrada = entradas.get(id);
+                    if (entrada.nombreNormalizado().startsWith(consultaNormalizada)) {
+                        puntuacion += 2 * terminos.size();
+                    }
+                    mejores.add(new Candidato(entrada, puntuacion));
+                    if (mejores.size() > maximo) {
+                        mejores.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return mejores.stream()
+                .sorted(ORDEN)
+                .map(c -> new SugerenciaAlimentoDTO(c.entrada().id(), c.entrada().nombre()))
+                .toList();
+    }
+
+    // La lectura queda fuera del bloqueo de escritura para no frenar las consultas; el orden lo da "actualizando"
+    private void actualizar(Long alimentoId) {
+        synchronized (actualizando) {
+            Alimento alimento = alimentoRepository.findConIngredientesById(alimentoId).orElse(null);
+
+            lock.writeLock().lock();
+            try {
+                if (modificadosDuranteCarga != null) {
+                    modificadosDuranteCarga.add(alimentoId);
+                }
+                if (alimento != null) {
+                    indexar(alimento, nombres, ingredientes, entradas);
+                } else {
+                    nombres.eliminar(alimentoId);
+                    ingredientes.eliminar(alimentoId);
+                    entradas.remove(alimentoId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // El término con el rango más pequeño en nombres e ingredientes; null si alguno no tiene ninguna palabra
+    private String terminoMasSelectivo(List<String> terminos) {
+        String mejor = null;
+        int tamanoMejor = Integer.MAX_VALUE;
+        for (String termino : terminos) {
+            int tamano = nombres.contarPrefijo(termino, MAXIMO_CANDIDATOS)
+                    + ingredientes.contarPrefijo(termino, MAXIMO_CANDIDATOS);
+            if (tamano == 0) {
+                return null;
+            }
+            if (tamano < tamanoMejor) {
+                mejor = termino;
+                tamanoMejor = tamano;
+            }
+        }
+        return mejor;
+    }
+
+    // 2 puntos por término que coincide con el nombre y 1 si solo coincide con un ingrediente; 0 si alguno no coincide
+    private int puntuar(Long id, List<String> terminos) {
+        int puntuacion = 0;
+        for (String termino : terminos) {
+            if (nombres.tienePrefijo(id, termino)) {
+                puntuacion += 2;
+            } else if (ingredientes.tienePrefijo(id, termino)) {
+                puntuacion += 1;
+            } else {
+                return 0;
+            }
+        }
+        return puntuacion;
+    }
+
+    private static void indexar(Alimento alimento, IndicePrefijos nombres, IndicePrefijos ingredientes,
+                                Map<Long, EntradaAlimento> entradas) {
+        nombres.indexar(alimento.getId(), List.of(alimento.getNombre()));
+        ingredientes.indexar(alimento.getId(),
+                alimento.getIngredientes() != null ? alimento.getIngredientes() : List.of());
+        entradas.put(alimento.getId(), new EntradaAlimento(alimento.getId(), alimento.getNombre(),
+                String.join(" ", IndicePrefijos.palabras(alimento.getNombre()))));
+    }
+
+    private record EntradaAlimento(Long id, String nombre, String nombreNormalizado) {
+    }
+
+    private record Candidato(EntradaAlimento entrada, int puntuacion) {
+    }
+}
@@ -11,9 +11,14 @@ import com.gestioneventos.cofira.exceptions.RecursoDuplicadoException;
 import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
 import com.gestioneventos.cofira.repositories.TokenRevocadoRepository;
 import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.EpocaTokenCache;
 import com.gestioneventos.cofira.security.JwtUtils;
+import com.gestioneventos.cofira.security.TokenRevocadoIndex;
+import com.gestioneventos.cofira.security.UserDetailsCache;
 import com.gestioneventos.cofira.security.UserDetailsImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -43,6 +48,21 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private TokenRevocadoIndex tokenRevocadoIndex;
+
+    @Autowired
+    private EpocaTokenCache epocaTokenCache;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocadoPurgaService tokenRevocadoPurgaService;
+
+    @Autowired
+    private UsuarioExistenciaIndex usuarioExistenciaIndex;
+
     public AuthResponseDTO login(LoginRequestDTO loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
@@ -53,34 +73,15 @@ public class AuthService {
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        String roleString = userDetails.getAuthorities().stream()
-                .findFirst()
-                .map(item -> item.getAuthority().replace("ROLE_", ""))
-                .orElse("");
-        
-        // Convertir el String a Rol enum
-        Rol rol = roleString.equals("ADMIN") ? Rol.ADMIN : Rol.USER;
-
-        return AuthResponseDTO.builder()
-                .token(jwt)
-                .type("Bearer")
-                .id(userDetails.getId())
-                .username(userDetails.getUsername())
-                .email(userDetails.getEmail())
-                .rol(rol)
-                .build();
+        return construirRespuesta(jwt, userDetails);
     }
 
-    @Transactional
+    /**
+     * Registra al usuario con un único hash de la contraseña y un único INSERT.
+     * Los duplicados de username o email los detectan las restricciones UNIQUE de la tabla,
+     * y el JWT se emite directamente a partir de la entidad guardada, sin volver a autenticar.
+     */
     public AuthResponseDTO register(RegisterRequestDTO registerRequest) {
-        if (usuarioRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new RecursoDuplicadoException("Error: El username ya está en uso!");
-        }
-
-        if (usuarioRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new RecursoDuplicadoException("Error: El email ya está en uso!");
-        }
-
         // Determinar el rol (por defecto USER si no se especifica o es inválido)
         Rol rol = Rol.USER;
         if (registerRequest.getRol() != null) {
@@ -95,14 +96,16 @@ public class AuthService {
                 .rol(rol)
                 .build();
 
-        usuarioRepository.save(usuario);
-
-        // Autenticar y generar token
-        LoginRequestDTO loginRequest = new LoginRequestDTO();
-        loginRequest.setUsername(registerRequest.getUsername());
-        loginRequest.setPassword(registerRequest.getPassword());
+        Usuario guardado;
+        try {
+            guardado = usuarioRepository.saveAndFlush(usuario);
+        } catch (DataIntegrityViolationException e) {
+            throw traducirDuplicado(e);
+        }
+        usuarioExistenciaIndex.registrar(guardado.getUsername(), guardado.getEmail());
 
-        return login(loginRequest);
+        UserDetailsImpl userDetails = UserDetailsImpl.build(guardado);
+        return construirRespuesta(jwtUtils.generateJwtToken(userDetails), userDetails);
     }
 
     public UserInfoDTO getCurrentUser() {
@@ -139,10 +142,62 @@ public class AuthService {
                 .build();
 
         tokenRevocadoRepository.save(tokenRevocado);
+        tokenRevocadoIndex.registrar(jti, expiresAt);
     }
 
+    /**
+     * Cierra todas las sesiones del usuario actual incrementando su época de tokens:
+     * cualquier JWT emitido antes deja de ser válido.
+     */
     @Transactional
+    public void logoutAll() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        if (usuarioRepository.incrementarEpocaToken(userDetails.getId()) == 0) {
+            throw new RecursoNoEncontradoException("Usuario no encontrado");
+        }
+
+        long nuevaEpoca = usuarioRepository.findEpocaTokenById(userDetails.getId())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Usuario no encontrado"));
+        epocaTokenCache.actualizar(userDetails.getId(), nuevaEpoca);
+        userDetailsCache.invalidate(userDetails.getUsername());
+    }
+
+    // Borrado por lotes: un único DELETE sin límite bloquearía revoked_tokens con mucho historial
     public void cleanupExpiredTokens() {
-        tokenRevocadoRepository.deleteExpiredTokens(LocalDateTime.now());
+        tokenRevocadoPurgaService.purgarExpirados();
+    }
+
+    private AuthResponseDTO construirRespuesta(String jwt, UserDetailsImpl userDetails) {
+        String roleString = userDetails.getAuthorities().stream()
+                .findFirst()
+                .map(item -> item.getAuthority().replace("ROLE_", ""))
+                .orElse("");
+        
+        // Convertir el String a Rol enum
+        Rol rol = roleString.equals("ADMIN") ? Rol.ADMIN : Rol.USER;
+
+        return AuthResponseDTO.builder()
+                .token(jwt)
+                .type("Bearer")
+                .id(userDetails.getId())
+                .username(userDetails.getUsername())
+                .email(userDetails.getEmail())
+                .rol(rol)
+                .build();
+    }
+
+    private RuntimeException traducirDuplicado(DataIntegrityViolationException e) {
+        String restriccion = e.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                ? cve.getConstraintName()
+                : String.valueOf(e.getMostSpecificCause().getMessage());
+        if (restriccion.contains("username")) {
+            return new RecursoDuplicadoException("Error: El username ya está en uso!");
+        }
+        if (restriccion.contains("email")) {
+            return new RecursoDuplicadoException("Error: El email ya está en uso!");
+        }
+        return e;
     }
 }
@@ -3,6 +3,7 @@ package com.gestioneventos.cofira.services;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.gestioneventos.cofira.dto.ejercicios.CrearEjerciciosDTO;
@@ -11,6 +12,7 @@ import com.gestioneventos.cofira.dto.ejercicios.ModificarEjerciciosDTO;
 import com.gestioneventos.cofira.entities.Ejercicios;
 import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
 import com.gestioneventos.cofira.repositories.EjerciciosRepository;
+import com.gestioneventos.cofira.utils.BusquedaTexto;
 
 @Service
 public class EjerciciosService {
@@ -23,7 +25,16 @@ public class EjerciciosService {
     }
 
     public List<EjerciciosDTO> listarEjercicios() {
-        return ejerciciosRepository.findAll().stream()
+        return listarEjercicios(null, null);
+    }
+
+    // Con nombre, devuelve como mucho "limite" ejercicios ordenados por parecido con el nombre buscado
+    public List<EjerciciosDTO> listarEjercicios(String nombre, Integer limite) {
+        List<Ejercicios> ejercicios = (nombre != null && !nombre.trim().isEmpty())
+                ? ejerciciosRepository.buscarPorNombre(BusquedaTexto.patronContiene(nombre), nombre.trim(),
+                        Limit.of(BusquedaTexto.limitar(limite)))
+                : ejerciciosRepository.findAll();
+        return ejercicios.stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,75 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.usuario.EstadisticasUsuariosDTO;
+import com.gestioneventos.cofira.dto.usuario.TramoHistogramaDTO;
+import com.gestioneventos.cofira.enums.CategoriaImc;
+import com.gestioneventos.cofira.enums.Rol;
+import com.gestioneventos.cofira.repositories.RecuentoPorGrupo;
+import com.gestioneventos.cofira.repositories.TramoHistograma;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distribuciones demográficas de los usuarios para los paneles de administración.
+ * <p>
+ * Cada cifra sale de una consulta agregada (COUNT ... GROUP BY): la base de datos recorre la tabla y solo
+ * devuelve unas pocas filas de recuento, sin cargar ningún usuario en memoria.
+ */
+@Service
+public class EstadisticasUsuariosService {
+    private static final double ANCHO_EDAD = 10;
+    private static final double ANCHO_PESO = 10;
+    private static final double ANCHO_ALTURA = 0.1;
+
+    private final UsuarioRepository usuarioRepository;
+
+    public EstadisticasUsuariosService(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public EstadisticasUsuariosDTO obtenerEstadisticas() {
+        Map<Rol, Long> porRol = recuentoPorEnum(Rol.class, usuarioRepository.contarPorRol());
+        long total = porRol.values().stream().mapToLong(Long::longValue).sum();
+
+        return new EstadisticasUsuariosDTO(
+                total,
+                usuarioRepository.contarConPlanActivo(),
+                porRol,
+                convertirHistograma(usuarioRepository.histogramaEdad(), ANCHO_EDAD),
+                convertirHistograma(usuarioRepository.histogramaPeso(), ANCHO_PESO),
+                convertirHistograma(usuarioRepository.histogramaAltura(), ANCHO_ALTURA),
+                recuentoPorEnum(CategoriaImc.class, usuarioRepository.contarPorCategoriaImc())
+        );
+    }
+
+    private List<TramoHistogramaDTO> convertirHistograma(List<TramoHistograma> tramos, double ancho) {
+        BigDecimal anchoDecimal = BigDecimal.valueOf(ancho);
+        return tramos.stream()
+                .map(tramo -> {
+                    // En decimal para que los límites de 0.1 m salgan exactos (1.7 y no 1.7000000000000002)
+                    BigDecimal desde = BigDecimal.valueOf(tramo.getTramo().longValue()).multiply(anchoDecimal);
+                    return new TramoHistogramaDTO(desde.doubleValue(), desde.add(anchoDecimal).doubleValue(),
+                            tramo.getTotal());
+                })
+                .toList();
+    }
+
+    // Todas las constantes aparecen en el resultado, con 0 si la consulta no devolvió su grupo
+    private <E extends Enum<E>> Map<E, Long> recuentoPorEnum(Class<E> tipo, List<RecuentoPorGrupo> recuentos) {
+        Map<E, Long> resultado = new EnumMap<>(tipo);
+        for (E valor : tipo.getEnumConstants()) {
+            resultado.put(valor, 0L);
+        }
+        for (RecuentoPorGrupo recuento : recuentos) {
+            resultado.put(Enum.valueOf(tipo, recuento.getGrupo().toString()), recuento.getTotal());
+        }
+        return resultado;
+    }
+}
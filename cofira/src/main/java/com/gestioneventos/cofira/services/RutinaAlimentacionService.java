@@ -8,6 +8,7 @@ import com.gestioneventos.cofira.repositories.RutinaAlimentacionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -90,27 +91,32 @@ public class RutinaAlimentacionService {
         if (comida instanceof Desayuno) {
             Desayuno d = (Desayuno) comida;
             dto.setId(d.getId());
-            dto.setAlimentos(d.getAlimentos());
+            dto.setAlimentos(copiarAlimentos(d.getAlimentos()));
         } else if (comida instanceof Almuerzo) {
             Almuerzo a = (Almuerzo) comida;
             dto.setId(a.getId());
-            dto.setAlimentos(a.getAlimentos());
+            dto.setAlimentos(copiarAlimentos(a.getAlimentos()));
         } else if (comida instanceof Comida) {
             Comida c = (Comida) comida;
             dto.setId(c.getId());
-            dto.setAlimentos(c.getAlimentos());
+            dto.setAlimentos(copiarAlimentos(c.getAlimentos()));
         } else if (comida instanceof Merienda) {
             Merienda m = (Merienda) comida;
             dto.setId(m.getId());
-            dto.setAlimentos(m.getAlimentos());
+            dto.setAlimentos(copiarAlimentos(m.getAlimentos()));
         } else if (comida instanceof Cena) {
             Cena c = (Cena) comida;
             dto.setId(c.getId());
-            dto.setAlimentos(c.getAlimentos());
+            dto.setAlimentos(copiarAlimentos(c.getAlimentos()));
         }
         return dto;
     }
 
+    // Copia la colección dentro de la transacción para que el DTO no dependa de la sesión abierta
+    private List<String> copiarAlimentos(List<String> alimentos) {
+        return alimentos != null ? new ArrayList<>(alimentos) : null;
+    }
+
     private DiaAlimentacion convertirDiaAlimentacionDTOAEntidad(CrearDiaAlimentacionDTO dto) {
         DiaAlimentacion dia = new DiaAlimentacion();
         dia.setDiaSemana(DiaSemana.valueOf(dto.getDiaSemana().toUpperCase()));
@@ -0,0 +1,131 @@
+package com.gestioneventos.cofira.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Purga periódica de los tokens revocados que ya han expirado.
+ * <p>
+ * Borra por lotes acotados, cada uno en su propia transacción y con una pausa entre lotes, para no
+ * bloquear ni inflar {@code revoked_tokens}. Un advisory lock de PostgreSQL garantiza que solo una
+ * instancia ejecuta la purga a la vez.
+ */
+@Service
+public class TokenRevocadoPurgaService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocadoPurgaService.class);
+
+    // Clave arbitraria pero fija del advisory lock, compartida por todas las instancias
+    static final long ADVISORY_LOCK_KEY = 7_301_001L;
+
+    private static final String SQL_LOCK = "SELECT pg_try_advisory_lock(?)";
+    private static final String SQL_UNLOCK = "SELECT pg_advisory_unlock(?)";
+    private static final String SQL_DELETE_LOTE =
+            "DELETE FROM revoked_tokens WHERE id IN " +
+            "(SELECT id FROM revoked_tokens WHERE expires_at < ? ORDER BY id LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanoLote;
+    private final long pausaEntreLotesMs;
+    private final Counter filasEliminadas;
+    private final Timer duracion;
+
+    public TokenRevocadoPurgaService(JdbcTemplate jdbcTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${cofira.revoked-tokens.purge.batch-size:1000}") int tamanoLote,
+                                     @Value("${cofira.revoked-tokens.purge.pause-ms:200}") long pausaEntreLotesMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanoLote = tamanoLote;
+        this.pausaEntreLotesMs = pausaEntreLotesMs;
+        this.filasEliminadas = Counter.builder("cofira.revoked_tokens.purge.deleted")
+                .description("Tokens revocados expirados eliminados por la purga")
+                .register(meterRegistry);
+        this.duracion = Timer.builder("cofira.revoked_tokens.purge.duration")
+                .description("Duración de cada ejecución de la purga de tokens revocados")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cofira.revoked-tokens.purge.cron:0 15 * * * *}")
+    public void purgaProgramada() {
+        purgarExpirados();
+    }
+
+    /**
+     * Elimina los tokens revocados expirados y devuelve cuántas filas se han borrado.
+     * Devuelve 0 sin hacer nada si otra instancia tiene la purga en curso.
+     */
+    public long purgarExpirados() {
+        Long eliminadas = duracion.record(() -> jdbcTemplate.execute((ConnectionCallback<Long>) this::purgar));
+        return eliminadas != null ? eliminadas : 0L;
+    }
+
+    private long purgar(Connection connection) throws SQLException {
+        if (!ejecutarLock(connection, SQL_LOCK)) {
+            log.debug("Purga de tokens revocados en curso en otra instancia, se omite");
+            return 0L;
+        }
+
+        // Cada DELETE se confirma por separado para que ningún lote retenga bloqueos mucho tiempo
+        boolean autoCommitOriginal = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        long total = 0;
+        try {
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            int eliminadasLote;
+            do {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_DELETE_LOTE)) {
+                    ps.setTimestamp(1, ahora);
+                    ps.setInt(2, tamanoLote);
+                    eliminadasLote = ps.executeUpdate();
+                }
+                total += eliminadasLote;
+                filasEliminadas.increment(eliminadasLote);
+            } while (eliminadasLote == tamanoLote && pausar());
+        } finally {
+            connection.setAutoCommit(autoCommitOriginal);
+            ejecutarLock(connection, SQL_UNLOCK);
+        }
+
+        if (total > 0) {
+            log.info("Purga de tokens revocados: {} filas eliminadas", total);
+        }
+        return total;
+    }
+
+    private boolean ejecutarLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private boolean pausar() {
+        if (pausaEntreLotesMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausaEntreLotesMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.repositories.IdentificadoresUsuario;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.utils.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Filtro de Bloom en memoria con los usernames y emails registrados, para responder las comprobaciones
+ * de disponibilidad del formulario de registro sin ir a la base de datos.
+ * <p>
+ * Un negativo del filtro es definitivo: el valor no existe. Un positivo puede ser un falso positivo, o un
+ * valor que ya se borró o cambió (el filtro no admite borrados), así que se confirma con la base de datos.
+ * El filtro se reconstruye periódicamente desde la base de datos: así salen los valores borrados o cambiados
+ * y entran los usuarios creados por otra instancia o fuera de la aplicación, que nunca pasaron por
+ * {@link #registrar}.
+ */
+@Component
+public class UsuarioExistenciaIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UsuarioExistenciaIndex.class);
+
+    private static final String PREFIJO_USERNAME = "u:";
+    private static final String PREFIJO_EMAIL = "e:";
+    static final int TAMANO_PAGINA = 1000;
+
+    private final UsuarioRepository usuarioRepository;
+    private final int capacidadEsperada;
+    private final double tasaFalsosPositivos;
+
+    private volatile BloomFilter filtro;
+    // Filtro que se está reconstruyendo: recibe también las altas que lleguen durante la carga
+    private BloomFilter enConstruccion;
+    private volatile boolean inicializado = false;
+
+    public UsuarioExistenciaIndex(UsuarioRepository usuarioRepository,
+                                  @Value("${cofira.usuarios.existence-index.expected-insertions:100000}") int capacidadEsperada,
+                                  @Value("${cofira.usuarios.existence-index.false-positive-rate:0.01}") double tasaFalsosPositivos) {
+        this.usuarioRepository = usuarioRepository;
+        this.capacidadEsperada = capacidadEsperada;
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        this.filtro = new BloomFilter(capacidadEsperada, tasaFalsosPositivos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        reconstruir();
+        inicializado = true;
+    }
+
+    public boolean existeUsername(String username) {
+        if (inicializado && !filtro.mightContain(PREFIJO_USERNAME + username)) {
+            return false;
+        }
+        return usuarioRepository.existsByUsername(username);
+    }
+
+    public boolean existeEmail(String email) {
+        if (inicializado && !filtro.mightContain(PREFIJO_EMAIL + email)) {
+            return false;
+        }
+        return usuarioRepository.existsByEmail(email);
+    }
+
+    /**
+     * Registra un usuario nuevo. Se llama después de guardarlo para que un negativo nunca
+     * contradiga a la base de datos.
+     */
+    public synchronized void registrar(String username, String email) {
+        anadir(filtro, username, email);
+        if (enConstruccion != null) {
+            anadir(enConstruccion, username, email);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cofira.usuarios.existence-index.rebuild-interval-ms:3600000}")
+    public void reconstruirPeriodicamente() {
+        if (inicializado) {
+            reconstruir();
+        }
+    }
+
+    private void reconstruir() {
+        // Cada usuario aporta dos entradas al filtro (username y email)
+        long entradas = usuarioRepository.count() * 2;
+        BloomFilter nuevo = new BloomFilter((int) Math.min(Integer.MAX_VALUE, Math.max(capacidadEsperada, entradas)),
+                tasaFalsosPositivos);
+        synchronized (this) {
+            enConstruccion = nuevo;
+        }
+        try {
+            long ultimoId = 0;
+            List<IdentificadoresUsuario> pagina;
+            do {
+                pagina = usuarioRepository.findIdentificadoresDespuesDeId(ultimoId, Limit.of(TAMANO_PAGINA));
+                for (IdentificadoresUsuario usuario : pagina) {
+                    anadir(nuevo, usuario.getUsername(), usuario.getEmail());
+                    ultimoId = usuario.getId();
+                }
+            } while (pagina.size() == TAMANO_PAGINA);
+            synchronized (this) {
+                filtro = nuevo;
+            }
+            log.info("Índice de usernames y emails reconstruido");
+        } finally {
+            synchronized (this) {
+                enConstruccion = null;
+            }
+        }
+    }
+
+    private static void anadir(BloomFilter destino, String username, String email) {
+        if (username != null) {
+            destino.put(PREFIJO_USERNAME + username);
+        }
+        if (email != null) {
+            destino.put(PREFIJO_EMAIL + email);
+        }
+    }
+}
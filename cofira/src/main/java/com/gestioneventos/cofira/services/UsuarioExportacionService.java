@@ -0,0 +1,101 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.InclusionUsuario;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de todos los usuarios con sus rutinas en NDJSON (un UsuarioDetalleDTO por línea).
+ * <p>
+ * Los usuarios se leen con un cursor de solo avance dentro de una transacción de solo lectura y se escriben
+ * según llegan. Cada bloque de usuarios se serializa (sus colecciones se cargan por lotes, con un IN por tabla)
+ * y después se vacía el contexto de persistencia, así que la memoria usada no depende del número de usuarios.
+ */
+@Service
+public class UsuarioExportacionService {
+
+    private static final Set<InclusionUsuario> TODO = EnumSet.allOf(InclusionUsuario.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioService usuarioService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoBloque;
+
+    public UsuarioExportacionService(UsuarioRepository usuarioRepository,
+                                     UsuarioService usuarioService,
+                                     EntityManager entityManager,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${cofira.usuarios.export.chunk-size:100}") int tamanoBloque) {
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioService = usuarioService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        // La respuesta se escribe fuera del hilo de la petición: la transacción se abre aquí y no con @Transactional
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+    }
+
+    /**
+     * Escribe los usuarios en {@code salida} y devuelve cuántos se han exportado.
+     * No cierra {@code salida}.
+     */
+    public long exportar(OutputStream salida) {
+        Long exportados = transactionTemplate.execute(status -> {
+            try (Stream<Usuario> usuarios = usuarioRepository.streamParaExportacion();
+                 JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Cada documento termina en su propio salto de línea
+                generador.setRootValueSeparator(null);
+
+                long total = 0;
+                List<Usuario> bloque = new ArrayList<>(tamanoBloque);
+                Iterator<Usuario> iterador = usuarios.iterator();
+                while (iterador.hasNext()) {
+                    bloque.add(iterador.next());
+                    if (bloque.size() == tamanoBloque) {
+                        total += escribirBloque(generador, bloque);
+                    }
+                }
+                return total + escribirBloque(generador, bloque);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return exportados != null ? exportados : 0L;
+    }
+
+    private int escribirBloque(JsonGenerator generador, List<Usuario> bloque) throws IOException {
+        for (Usuario usuario : bloque) {
+            generador.writeObject(usuarioService.convertirAUsuarioDetalleDTO(usuario, TODO));
+            generador.writeRaw('\n');
+        }
+        generador.flush();
+
+        int escritos = bloque.size();
+        bloque.clear();
+        // Desvincula los usuarios ya escritos (y todo lo que arrastraron) para que el GC pueda liberarlos
+        entityManager.clear();
+        return escritos;
+    }
+}
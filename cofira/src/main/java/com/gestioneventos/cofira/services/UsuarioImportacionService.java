@@ -0,0 +1,295 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gestioneventos.cofira.dto.importacion.ErrorImportacionDTO;
+import com.gestioneventos.cofira.dto.usuario.CrearUsuarioDTO;
+import com.gestioneventos.cofira.dto.usuario.ImportacionUsuariosDTO;
+import com.gestioneventos.cofira.enums.FormatoImportacion;
+import com.gestioneventos.cofira.enums.Rol;
+import com.gestioneventos.cofira.utils.Csv;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de usuarios desde CSV o NDJSON.
+ * <p>
+ * El fichero se lee en streaming y se procesa por lotes de tamaño fijo: cada lote se valida, se comprueban
+ * sus duplicados con dos consultas IN (username y email) y se inserta con un único batch JDBC. La memoria
+ * usada no depende del tamaño del fichero; solo se guarda el detalle de los primeros errores.
+ * <p>
+ * Las contraseñas se hashean en un {@link ForkJoinPool} propio y no en el pool acotado del login: una
+ * importación grande no deja sin hueco a los logins ni se corta a medias por la saturación de ese pool.
+ */
+@Service
+public class UsuarioImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UsuarioImportacionService.class);
+
+    private static final String SQL_USERNAMES_EXISTENTES = "SELECT username FROM usuarios WHERE username IN (:valores)";
+    private static final String SQL_EMAILS_EXISTENTES = "SELECT email FROM usuarios WHERE email IN (:valores)";
+    // ON CONFLICT cubre las altas concurrentes que aparezcan entre la comprobación y la inserción.
+    // El id sale de la misma secuencia que usa Hibernate: cada nextval es un valor que el optimizador pooled no reparte
+    private static final String SQL_INSERT =
+            "INSERT INTO usuarios (id, nombre, username, email, password, rol, edad, peso, altura, epoca_token) "
+            + "VALUES (nextval('usuarios_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, 0) ON CONFLICT DO NOTHING";
+
+    private static final Set<String> COLUMNAS_OBLIGATORIAS = Set.of("nombre", "username", "email", "password");
+    private static final Set<String> COLUMNAS_CSV =
+            Set.of("nombre", "username", "email", "password", "rol", "edad", "peso", "altura");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ForkJoinPool poolHash;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final UsuarioExistenciaIndex usuarioExistenciaIndex;
+    private final int tamanoLote;
+    private final int maxErroresDetallados;
+
+    public UsuarioImportacionService(NamedParameterJdbcTemplate jdbcTemplate,
+                                     @Qualifier("passwordEncoderDirecto") PasswordEncoder passwordEncoder,
+                                     Validator validator,
+                                     ObjectMapper objectMapper,
+                                     UsuarioExistenciaIndex usuarioExistenciaIndex,
+                                     @Value("${cofira.usuarios.import.hashing-parallelism:1}") int paralelismoHash,
+                                     @Value("${cofira.usuarios.import.batch-size:500}") int tamanoLote,
+                                     @Value("${cofira.usuarios.import.max-errors:1000}") int maxErroresDetallados) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.poolHash = new ForkJoinPool(Math.max(1, paralelismoHash));
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.usuarioExistenciaIndex = usuarioExistenciaIndex;
+        this.tamanoLote = tamanoLote;
+        this.maxErroresDetallados = maxErroresDetallados;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        poolHash.shutdownNow();
+    }
+
+    public ImportacionUsuariosDTO importar(InputStream entrada, FormatoImportacion formato) throws IOException {
+        ImportacionUsuariosDTO resultado = new ImportacionUsuariosDTO();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        List<String> cabecera = null;
+        long numeroLinea = 0;
+        if (formato == FormatoImportacion.CSV) {
+            cabecera = leerCabecera(reader.readLine());
+            numeroLinea++;
+        }
+
+        List<FilaImportacion> lote = new ArrayList<>(tamanoLote);
+        String linea;
+        while ((linea = reader.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            resultado.setFilasProcesadas(resultado.getFilasProcesadas() + 1);
+            try {
+                CrearUsuarioDTO usuario = formato == FormatoImportacion.CSV
+                        ? parsearCsv(linea, cabecera)
+                        : parsearNdjson(linea);
+                validar(usuario);
+                lote.add(new FilaImportacion(numeroLinea, usuario));
+            } catch (IllegalArgumentException e) {
+                rechazar(resultado, numeroLinea, e.getMessage());
+            }
+
+            if (lote.size() >= tamanoLote) {
+                procesarLote(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarLote(lote, resultado);
+        }
+
+        log.info("Importación de usuarios: {} filas, {} creados, {} rechazadas",
+                resultado.getFilasProcesadas(), resultado.getUsuariosCreados(), resultado.getFilasRechazadas());
+        return resultado;
+    }
+
+    private void procesarLote(List<FilaImportacion> lote, ImportacionUsuariosDTO resultado) {
+        Set<String> usernamesExistentes = consultarExistentes(SQL_USERNAMES_EXISTENTES,
+                lote.stream().map(fila -> fila.usuario().getUsername()).collect(Collectors.toSet()));
+        Set<String> emailsExistentes = consultarExistentes(SQL_EMAILS_EXISTENTES,
+                lote.stream().map(fila -> fila.usuario().getEmail()).collect(Collectors.toSet()));
+
+        // Duplicados contra la base de datos y dentro del propio lote
+        Set<String> usernamesLote = new HashSet<>();
+        Set<String> emailsLote = new HashSet<>();
+        List<FilaImportacion> validas = new ArrayList<>(lote.size());
+        for (FilaImportacion fila : lote) {
+            CrearUsuarioDTO usuario = fila.usuario();
+            if (usernamesExistentes.contains(usuario.getUsername()) || usernamesLote.contains(usuario.getUsername())) {
+                rechazar(resultado, fila.numeroLinea(), "El username " + usuario.getUsername() + " ya está en uso");
+            } else if (emailsExistentes.contains(usuario.getEmail()) || emailsLote.contains(usuario.getEmail())) {
+                rechazar(resultado, fila.numeroLinea(), "El email " + usuario.getEmail() + " ya está en uso");
+            } else {
+                usernamesLote.add(usuario.getUsername());
+                emailsLote.add(usuario.getEmail());
+                validas.add(fila);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = poolHash.submit(() -> validas.parallelStream()
+                .map(fila -> passwordEncoder.encode(fila.usuario().getPassword()))
+                .toList()).join();
+
+        List<Object[]> parametros = new ArrayList<>(validas.size());
+        for (int i = 0; i < validas.size(); i++) {
+            CrearUsuarioDTO usuario = validas.get(i).usuario();
+            Rol rol = usuario.getRol() != null ? usuario.getRol() : Rol.USER;
+            parametros.add(new Object[]{
+                    usuario.getNombre(), usuario.getUsername(), usuario.getEmail(),
+                    hashes.get(i), rol.name(),
+                    usuario.getEdad(), usuario.getPeso(), usuario.getAltura()
+            });
+        }
+
+        int[] filasInsertadas = jdbcTemplate.getJdbcTemplate().batchUpdate(SQL_INSERT, parametros, new int[]{
+                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                Types.INTEGER, Types.DOUBLE, Types.DOUBLE
+        });
+
+        for (int i = 0; i < validas.size(); i++) {
+            FilaImportacion fila = validas.get(i);
+            if (filasInsertadas[i] > 0 || filasInsertadas[i] == Statement.SUCCESS_NO_INFO) {
+                resultado.setUsuariosCreados(resultado.getUsuariosCreados() + 1);
+                usuarioExistenciaIndex.registrar(fila.usuario().getUsername(), fila.usuario().getEmail());
+            } else {
+                rechazar(resultado, fila.numeroLinea(), "El username o el email ya está en uso");
+            }
+        }
+    }
+
+    private Set<String> consultarExistentes(String sql, Set<String> valores) {
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Map.of("valores", valores), String.class));
+    }
+
+    private List<String> leerCabecera(String linea) {
+        if (linea == null || linea.isBlank()) {
+            throw new IllegalArgumentException("El CSV debe empezar con una cabecera: "
+                    + "nombre,username,email,password[,rol,edad,peso,altura]");
+        }
+        List<String> cabecera = Csv.parsearLinea(linea).stream()
+                .map(columna -> columna.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        for (String columna : cabecera) {
+            if (!COLUMNAS_CSV.contains(columna)) {
+                throw new IllegalArgumentException("Columna desconocida en la cabecera del CSV: " + columna);
+            }
+        }
+        if (!cabecera.containsAll(COLUMNAS_OBLIGATORIAS)) {
+            throw new IllegalArgumentException("La cabecera del CSV debe incluir las columnas " + COLUMNAS_OBLIGATORIAS);
+        }
+        return cabecera;
+    }
+
+    private CrearUsuarioDTO parsearCsv(String linea, List<String> cabecera) {
+        List<String> campos = Csv.parsearLinea(linea);
+        if (campos.size() != cabecera.size()) {
+            throw new IllegalArgumentException("Se esperaban " + cabecera.size() + " columnas y hay " + campos.size());
+        }
+        Map<String, String> valores = new HashMap<>();
+        for (int i = 0; i < cabecera.size(); i++) {
+            String valor = campos.get(i).trim();
+            valores.put(cabecera.get(i), valor.isEmpty() ? null : valor);
+        }
+
+        CrearUsuarioDTO usuario = new CrearUsuarioDTO();
+        usuario.setNombre(valores.get("nombre"));
+        usuario.setUsername(valores.get("username"));
+        usuario.setEmail(valores.get("email"));
+        usuario.setPassword(valores.get("password"));
+        if (valores.get("rol") != null) {
+            usuario.setRol(parsearRol(valores.get("rol")));
+        }
+        usuario.setEdad(parsearNumero(valores.get("edad"), "edad", Integer::valueOf));
+        usuario.setPeso(parsearNumero(valores.get("peso"), "peso", Double::valueOf));
+        usuario.setAltura(parsearNumero(valores.get("altura"), "altura", Double::valueOf));
+        return usuario;
+    }
+
+    private CrearUsuarioDTO parsearNdjson(String linea) {
+        try {
+            return objectMapper.readValue(linea, CrearUsuarioDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON no válido: " + e.getOriginalMessage());
+        }
+    }
+
+    private void validar(CrearUsuarioDTO usuario) {
+        Set<ConstraintViolation<CrearUsuarioDTO>> violaciones = validator.validate(usuario);
+        if (!violaciones.isEmpty()) {
+            throw new IllegalArgumentException(violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private Rol parsearRol(String valor) {
+        try {
+            return Rol.valueOf(valor.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Rol no válido: " + valor);
+        }
+    }
+
+    private <T> T parsearNumero(String valor, String campo, Function<String, T> parser) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return parser.apply(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor no válido para " + campo + ": " + valor);
+        }
+    }
+
+    private void rechazar(ImportacionUsuariosDTO resultado, long numeroLinea, String mensaje) {
+        resultado.setFilasRechazadas(resultado.getFilasRechazadas() + 1);
+        if (resultado.getErrores().size() < maxErroresDetallados) {
+            resultado.getErrores().add(new ErrorImportacionDTO(numeroLinea, mensaje));
+        } else {
+            resultado.setErroresTruncados(true);
+        }
+    }
+
+    private record FilaImportacion(long numeroLinea, CrearUsuarioDTO usuario) {
+    }
+}
@@ -3,45 +3,138 @@ package com.gestioneventos.cofira.services;
 import com.gestioneventos.cofira.dto.usuario.CrearUsuarioDTO;
 import com.gestioneventos.cofira.dto.usuario.ModificarUsuarioDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioDetalleDTO;
+import com.gestioneventos.cofira.dto.usuario.UsuarioDetalleParcialDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO;
+import com.gestioneventos.cofira.dto.usuario.UsuarioPaginaCursorDTO;
 import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.InclusionUsuario;
+import com.gestioneventos.cofira.enums.OrdenListadoUsuarios;
 import com.gestioneventos.cofira.enums.Rol;
 import com.gestioneventos.cofira.exceptions.RecursoDuplicadoException;
 import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
+import com.gestioneventos.cofira.repositories.PerfilUsuario;
 import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.EpocaTokenCache;
+import com.gestioneventos.cofira.security.UserDetailsCache;
+import com.gestioneventos.cofira.utils.BusquedaTexto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class UsuarioService {
     private static final String USUARIO_NO_ENCONTRADO = "Usuario no encontrado con id ";
+    private static final int MAX_TAMANO_PAGINA_CURSOR = 100;
 
     private final UsuarioRepository usuarioRepository;
     private final RutinaAlimentacionService rutinaAlimentacionService;
     private final RutinaEjercicioService rutinaEjercicioService;
+    private final UserDetailsCache userDetailsCache;
+    private final EpocaTokenCache epocaTokenCache;
+    private final UsuarioExistenciaIndex usuarioExistenciaIndex;
 
     public UsuarioService(UsuarioRepository usuarioRepository,
                          RutinaAlimentacionService rutinaAlimentacionService,
-                         RutinaEjercicioService rutinaEjercicioService) {
+                         RutinaEjercicioService rutinaEjercicioService,
+                         UserDetailsCache userDetailsCache,
+                         EpocaTokenCache epocaTokenCache,
+                         UsuarioExistenciaIndex usuarioExistenciaIndex) {
         this.usuarioRepository = usuarioRepository;
         this.rutinaAlimentacionService = rutinaAlimentacionService;
         this.rutinaEjercicioService = rutinaEjercicioService;
+        this.userDetailsCache = userDetailsCache;
+        this.epocaTokenCache = epocaTokenCache;
+        this.usuarioExistenciaIndex = usuarioExistenciaIndex;
     }
 
     public Page<UsuarioListadoDTO> listarUsuarios(String nombre, Pageable pageable) {
-        Page<Usuario> usuarios = (nombre != null)
-                ? usuarioRepository.findByNombreContainingIgnoreCase(nombre, pageable)
-                : usuarioRepository.findAll(pageable);
-        return usuarios.map(this::convertirAUsuarioListadoDTO);
+        return (nombre != null)
+                ? usuarioRepository.findListadoByNombre(nombre, pageable)
+                : usuarioRepository.findListado(pageable);
     }
 
+    // Búsqueda de usuarios por nombre: los más parecidos al término, como mucho "limite"
+    public List<UsuarioListadoDTO> buscarUsuarios(String termino, Integer limite) {
+        return usuarioRepository.buscarPorNombre(BusquedaTexto.patronContiene(termino), termino.trim(),
+                Limit.of(BusquedaTexto.limitar(limite)));
+    }
+
+    /**
+     * Listado paginado por cursor: cada página continúa desde la última fila de la anterior, así que
+     * su coste no depende de la profundidad y no hace falta el COUNT(*) de la paginación por offset.
+     */
+    @Transactional(readOnly = true)
+    public UsuarioPaginaCursorDTO listarUsuariosPorCursor(String nombre, OrdenListadoUsuarios orden, String cursor,
+                                                          int size, boolean incluirTotalEstimado) {
+        int tamano = Math.max(1, Math.min(size, MAX_TAMANO_PAGINA_CURSOR));
+        String filtro = nombre != null ? nombre : "";
+        CursorUsuarios desde = cursor != null ? CursorUsuarios.decodificar(cursor, orden) : CursorUsuarios.inicio();
+
+        // Se pide una fila de más para saber si hay página siguiente
+        Limit limite = Limit.of(tamano + 1);
+        List<UsuarioListadoDTO> filas = (orden == OrdenListadoUsuarios.NOMBRE)
+                ? usuarioRepository.findListadoDespuesDeNombre(desde.nombre(), desde.id(), filtro, limite)
+                : usuarioRepository.findListadoDespuesDeId(desde.id(), filtro, limite);
+
+        String siguienteCursor = null;
+        if (filas.size() > tamano) {
+            filas = new ArrayList<>(filas.subList(0, tamano));
+            siguienteCursor = CursorUsuarios.desde(filas.get(tamano - 1)).codificar(orden);
+        }
+
+        Long totalEstimado = (incluirTotalEstimado && nombre == null) ? estimarTotalUsuarios() : null;
+        return new UsuarioPaginaCursorDTO(filas, siguienteCursor, totalEstimado);
+    }
+
+    @Transactional(readOnly = true)
     public UsuarioDetalleDTO obtenerUsuario(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        return obtenerUsuario(id, EnumSet.allOf(InclusionUsuario.class));
+    }
+
+    /**
+     * Detalle del usuario con solo las partes pedidas. La entidad Usuario no se carga: una SELECT de los campos
+     * simples y una consulta por cada parte incluida, así que lo que no se pide (objetivos, plan, la otra rutina)
+     * nunca se lee.
+     */
+    @Transactional(readOnly = true)
+    public UsuarioDetalleDTO obtenerUsuario(Long id, Set<InclusionUsuario> incluir) {
+        PerfilUsuario perfil = usuarioRepository.findPerfilById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoException(USUARIO_NO_ENCONTRADO + id));
-        return convertirAUsuarioDetalleDTO(usuario);
+        UsuarioDetalleDTO dto = incluir.containsAll(EnumSet.allOf(InclusionUsuario.class))
+                ? new UsuarioDetalleDTO()
+                : new UsuarioDetalleParcialDTO();
+        dto.setId(perfil.getId());
+        dto.setNombre(perfil.getNombre());
+        dto.setUsername(perfil.getUsername());
+        dto.setEmail(perfil.getEmail());
+        dto.setRol(perfil.getRol());
+        dto.setEdad(perfil.getEdad());
+        dto.setPeso(perfil.getPeso());
+        dto.setAltura(perfil.getAltura());
+        if (incluir.contains(InclusionUsuario.ALIMENTOS_FAVORITOS)) {
+            dto.setAlimentosFavoritos(usuarioRepository.findAlimentosFavoritosById(id));
+        }
+        if (incluir.contains(InclusionUsuario.ALERGIAS)) {
+            dto.setAlergias(usuarioRepository.findAlergiasById(id));
+        }
+        if (incluir.contains(InclusionUsuario.RUTINA_ALIMENTACION)) {
+            usuarioRepository.findRutinaAlimentacionById(id)
+                    .ifPresent(rutina -> dto.setRutinaAlimentacion(rutinaAlimentacionService.convertirADTO(rutina)));
+        }
+        if (incluir.contains(InclusionUsuario.RUTINA_EJERCICIO)) {
+            usuarioRepository.findRutinaEjercicioById(id)
+                    .ifPresent(rutina -> dto.setRutinaEjercicio(rutinaEjercicioService.convertirADTO(rutina)));
+        }
+        return dto;
     }
 
     public UsuarioDetalleDTO obtenerUsuarioByEmail(String email) {
@@ -56,6 +149,14 @@ public class UsuarioService {
         return convertirAUsuarioDetalleDTO(usuario);
     }
 
+    public boolean existeUsername(String username) {
+        return usuarioExistenciaIndex.existeUsername(username);
+    }
+
+    public boolean existeEmail(String email) {
+        return usuarioExistenciaIndex.existeEmail(email);
+    }
+
     public UsuarioDetalleDTO crearUsuario(CrearUsuarioDTO crearUsuarioDTO) {
         if (usuarioRepository.findByEmail(crearUsuarioDTO.getEmail()).isPresent()) {
             throw new RecursoDuplicadoException("El email " + crearUsuarioDTO.getEmail() + " ya está en uso.");
@@ -82,6 +183,7 @@ public class UsuarioService {
         usuario.setAlergias(crearUsuarioDTO.getAlergias());
 
         Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        usuarioExistenciaIndex.registrar(usuarioGuardado.getUsername(), usuarioGuardado.getEmail());
         return convertirAUsuarioDetalleDTO(usuarioGuardado);
     }
 
@@ -92,6 +194,7 @@ public class UsuarioService {
         if (modificarUsuarioDTO.getNombre() != null) {
             usuario.setNombre(modificarUsuarioDTO.getNombre());
         }
+        String emailAnterior = usuario.getEmail();
         if (modificarUsuarioDTO.getEmail() != null) {
             usuario.setEmail(modificarUsuarioDTO.getEmail());
         }
@@ -115,6 +218,11 @@ public class UsuarioService {
         }
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        if (emailAnterior != null && !emailAnterior.equals(usuarioActualizado.getEmail())) {
+            usuarioExistenciaIndex.registrar(null, usuarioActualizado.getEmail());
+        }
+        // El principal cacheado tiene email y contraseña: debe recargarse en la siguiente petición
+        userDetailsCache.invalidate(usuarioActualizado.getUsername());
         return convertirAUsuarioDetalleDTO(usuarioActualizado);
     }
 
@@ -122,6 +230,9 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoException(USUARIO_NO_ENCONTRADO + id));
         usuarioRepository.delete(usuario);
+        userDetailsCache.invalidate(usuario.getUsername());
+        // La época se vuelve a leer en la siguiente petición y, sin usuario, ningún token suyo es vigente
+        epocaTokenCache.invalidate(usuario.getId());
     }
 
     public Usuario obtenerUsuarioPorId(Long id) {
@@ -133,11 +244,30 @@ public class UsuarioService {
         return usuarioRepository.findByEdadBetween(edadMin, edadMax);
     }
 
+    // Carga todas las entidades a la vez: para recorrer a todos los suscriptores usar listarUsuariosConPlanActivo
     public List<Usuario> obtenerUsuariosConPlanActivo() {
         return usuarioRepository.findUsuariosConPlanActivo();
     }
 
+    // Página de usuarios con plan activo, por cursor en orden de id (mismo formato de cursor que el listado por id)
+    public UsuarioPaginaCursorDTO listarUsuariosConPlanActivo(String cursor, int size) {
+        int tamano = Math.max(1, Math.min(size, MAX_TAMANO_PAGINA_CURSOR));
+        long desdeId = cursor != null ? CursorUsuarios.decodificar(cursor, OrdenListadoUsuarios.ID).id() : 0L;
+
+        List<UsuarioListadoDTO> filas = usuarioRepository.findConPlanActivoDespuesDeId(desdeId, Limit.of(tamano + 1));
+        String siguienteCursor = null;
+        if (filas.size() > tamano) {
+            filas = new ArrayList<>(filas.subList(0, tamano));
+            siguienteCursor = CursorUsuarios.desde(filas.get(tamano - 1)).codificar(OrdenListadoUsuarios.ID);
+        }
+        return new UsuarioPaginaCursorDTO(filas, siguienteCursor, null);
+    }
+
     private UsuarioDetalleDTO convertirAUsuarioDetalleDTO(Usuario usuario) {
+        return convertirAUsuarioDetalleDTO(usuario, EnumSet.allOf(InclusionUsuario.class));
+    }
+
+    public UsuarioDetalleDTO convertirAUsuarioDetalleDTO(Usuario usuario, Set<InclusionUsuario> incluir) {
         UsuarioDetalleDTO dto = new UsuarioDetalleDTO();
         dto.setId(usuario.getId());
         dto.setNombre(usuario.getNombre());
@@ -147,16 +277,21 @@ public class UsuarioService {
         dto.setEdad(usuario.getEdad());
         dto.setPeso(usuario.getPeso());
         dto.setAltura(usuario.getAltura());
-        dto.setAlimentosFavoritos(usuario.getAlimentosFavoritos());
-        dto.setAlergias(usuario.getAlergias());
+        // Copias: el DTO no debe depender de que la sesión siga abierta al serializarlo
+        if (incluir.contains(InclusionUsuario.ALIMENTOS_FAVORITOS) && usuario.getAlimentosFavoritos() != null) {
+            dto.setAlimentosFavoritos(new ArrayList<>(usuario.getAlimentosFavoritos()));
+        }
+        if (incluir.contains(InclusionUsuario.ALERGIAS) && usuario.getAlergias() != null) {
+            dto.setAlergias(new ArrayList<>(usuario.getAlergias()));
+        }
 
-        if (usuario.getRutinaAlimentacion() != null) {
+        if (incluir.contains(InclusionUsuario.RUTINA_ALIMENTACION) && usuario.getRutinaAlimentacion() != null) {
             dto.setRutinaAlimentacion(
                 rutinaAlimentacionService.convertirADTO(usuario.getRutinaAlimentacion())
             );
         }
 
-        if (usuario.getRutinaEjercicio() != null) {
+        if (incluir.contains(InclusionUsuario.RUTINA_EJERCICIO) && usuario.getRutinaEjercicio() != null) {
             dto.setRutinaEjercicio(
                 rutinaEjercicioService.convertirADTO(usuario.getRutinaEjercicio())
             );
@@ -165,11 +300,46 @@ public class UsuarioService {
         return dto;
     }
 
-    private UsuarioListadoDTO convertirAUsuarioListadoDTO(Usuario usuario) {
-        UsuarioListadoDTO dto = new UsuarioListadoDTO();
-        dto.setId(usuario.getId());
-        dto.setNombre(usuario.getNombre());
-        dto.setEmail(usuario.getEmail());
-        return dto;
+    private Long estimarTotalUsuarios() {
+        Long estimado = usuarioRepository.estimarTotalUsuarios();
+        return (estimado != null && estimado >= 0) ? estimado : null;
+    }
+
+    /**
+     * Posición del listado por cursor. Se envía al cliente como Base64 opaco para que no dependa
+     * de su formato; el orden va incluido para rechazar cursores de otro orden.
+     */
+    private record CursorUsuarios(String nombre, long id) {
+
+        static CursorUsuarios inicio() {
+            return new CursorUsuarios("", 0L);
+        }
+
+        static CursorUsuarios desde(UsuarioListadoDTO ultimo) {
+            return new CursorUsuarios(ultimo.getNombre(), ultimo.getId());
+        }
+
+        String codificar(OrdenListadoUsuarios orden) {
+            String valor = orden == OrdenListadoUsuarios.NOMBRE
+                    ? orden.name() + ":" + id + ":" + nombre
+                    : orden.name() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CursorUsuarios decodificar(String cursor, OrdenListadoUsuarios orden) {
+            try {
+                String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] partes = valor.split(":", 3);
+                if (!partes[0].equals(orden.name())
+                        || partes.length != (orden == OrdenListadoUsuarios.NOMBRE ? 3 : 2)) {
+                    throw new IllegalArgumentException("Cursor no válido para el orden " + orden);
+                }
+                long id = Long.parseLong(partes[1]);
+                return new CursorUsuarios(partes.length == 3 ? partes[2] : "", id);
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException y los errores de Base64 también son IllegalArgumentException
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            }
+        }
     }
 }
@@ -0,0 +1,34 @@
+package com.gestioneventos.cofira.utils;
+
+import java.util.Locale;
+
+/**
+ * Utilidades para las búsquedas por subcadena que sirven los índices trigram (pg_trgm) de V4.
+ * <p>
+ * Las consultas comparan {@code LOWER(columna) LIKE patron}: el patrón se construye aquí ya en
+ * minúsculas y como constante, para que PostgreSQL pueda usar el índice GIN sobre {@code lower(columna)}.
+ */
+public final class BusquedaTexto {
+
+    public static final int LIMITE_POR_DEFECTO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+
+    private BusquedaTexto() {
+    }
+
+    // Patrón "%termino%" en minúsculas, escapando los comodines de LIKE que escriba el usuario
+    public static String patronContiene(String termino) {
+        String escapado = termino.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
+
+    public static int limitar(Integer limite) {
+        if (limite == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+}
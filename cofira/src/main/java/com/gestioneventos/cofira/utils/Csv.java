@@ -0,0 +1,49 @@
+package com.gestioneventos.cofira.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura mínima de CSV (RFC 4180) línea a línea: campos separados por comas, opcionalmente entre
+ * comillas dobles, con las comillas internas duplicadas. No admite saltos de línea dentro de un campo.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    public static List<String> parsearLinea(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"' && actual.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+}
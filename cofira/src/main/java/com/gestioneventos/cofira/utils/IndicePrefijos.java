@@ -0,0 +1,137 @@
+package com.gestioneventos.cofira.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos de palabra: asocia cada palabra normalizada (minúsculas y sin tildes) con los ids
+ * de los elementos que la contienen.
+ * <p>
+ * Las palabras se guardan ordenadas en un {@link TreeMap}, así que todas las que empiezan por un prefijo forman
+ * un rango contiguo que se recorre con {@code subMap} sin mirar el resto. Admite altas y bajas por id.
+ * No es thread-safe: quien lo comparta debe sincronizar el acceso.
+ */
+public class IndicePrefijos {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final NavigableMap<String, Set<Long>> idsPorPalabra = new TreeMap<>();
+    private final Map<Long, Set<String>> palabrasPorId = new HashMap<>();
+
+    // Minúsculas y sin tildes: "Plátano" y "platano" son la misma palabra
+    public static String normalizar(String texto) {
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT).trim();
+    }
+
+    // Palabras normalizadas del texto, en orden y sin vacías
+    public static List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+        if (texto == null) {
+            return palabras;
+        }
+        for (String palabra : SEPARADORES.split(normalizar(texto))) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    /**
+     * Indexa las palabras de {@code textos} para {@code id}. Si el id ya estaba indexado se sustituyen
+     * sus palabras anteriores.
+     */
+    public void indexar(long id, Collection<String> textos) {
+        eliminar(id);
+        Set<String> palabrasDelId = new HashSet<>();
+        for (String texto : textos) {
+            palabrasDelId.addAll(palabras(texto));
+        }
+        if (palabrasDelId.isEmpty()) {
+            return;
+        }
+        for (String palabra : palabrasDelId) {
+            idsPorPalabra.computeIfAbsent(palabra, clave -> new HashSet<>()).add(id);
+        }
+        palabrasPorId.put(id, palabrasDelId);
+    }
+
+    public void eliminar(long id) {
+        Set<String> anteriores = palabrasPorId.remove(id);
+        if (anteriores == null) {
+            return;
+        }
+        for (String palabra : anteriores) {
+            Set<Long> ids = idsPorPalabra.get(palabra);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsPorPalabra.remove(palabra);
+            }
+        }
+    }
+
+    // Ids con alguna palabra que empieza por el prefijo (ya normalizado)
+    public Set<Long> buscarPrefijo(String prefijo) {
+        return buscarPrefijo(prefijo, Integer.MAX_VALUE);
+    }
+
+    // Como buscarPrefijo(prefijo), pero deja de recorrer el rango al reunir maximo ids
+    public Set<Long> buscarPrefijo(String prefijo, int maximo) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> idsPalabra : idsPorPalabra.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).values()) {
+            for (Long id : idsPalabra) {
+                if (ids.size() >= maximo) {
+                    return ids;
+                }
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Tamaño del rango del prefijo: suma los ids de cada palabra, así que un id con varias palabras que empiezan
+     * por el prefijo cuenta varias veces. Deja de recorrer al pasar de {@code maximo} y entonces devuelve
+     * {@code maximo + 1}.
+     */
+    public int contarPrefijo(String prefijo, int maximo) {
+        int total = 0;
+        for (Set<Long> idsPalabra : idsPorPalabra.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).values()) {
+            total += idsPalabra.size();
+            if (total > maximo) {
+                return maximo + 1;
+            }
+        }
+        return total;
+    }
+
+    // Si alguna palabra del id empieza por el prefijo (ya normalizado); solo mira las palabras de ese id
+    public boolean tienePrefijo(long id, String prefijo) {
+        Set<String> palabrasDelId = palabrasPorId.get(id);
+        if (palabrasDelId == null) {
+            return false;
+        }
+        for (String palabra : palabrasDelId) {
+            if (palabra.startsWith(prefijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int numeroPalabras() {
+        return idsPorPalabra.size();
+    }
+}
@@ -0,0 +1,9 @@
+-- ========================================
+-- COFIRA - Época de tokens por usuario
+-- Version: 2
+-- Description: Los JWT llevan la época del usuario al emitirse; incrementarla invalida todas sus sesiones
+-- ========================================
+
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS epoca_token BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN usuarios.epoca_token IS 'Solo son válidos los JWT emitidos con esta época';
@@ -0,0 +1,8 @@
+-- ========================================
+-- COFIRA - Índice para el listado de usuarios por cursor
+-- Version: 3
+-- Description: El listado por cursor ordena por (nombre, id) y continúa desde la última fila devuelta;
+--              con este índice cada página es un recorrido acotado sin importar la profundidad
+-- ========================================
+
+CREATE INDEX IF NOT EXISTS idx_usuarios_nombre_id ON usuarios(nombre, id);
@@ -0,0 +1,13 @@
+-- ========================================
+-- COFIRA - Búsqueda por subcadena con índices trigram
+-- Version: 4
+-- Description: Las búsquedas "contiene" (LOWER(x) LIKE '%termino%') no pueden usar los índices btree
+--              de V1 y recorrían la tabla entera. Los índices GIN de pg_trgm sobre lower(x) sí las sirven,
+--              y similarity() ordena los resultados por parecido con el término buscado
+-- ========================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_usuarios_nombre_trgm ON usuarios USING gin (lower(nombre) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_alimento_nombre_trgm ON alimento USING gin (lower(nombre) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_ejercicios_nombre_trgm ON ejercicios USING gin (lower(nombre_ejercicio) gin_trgm_ops);
@@ -0,0 +1,26 @@
+-- ========================================
+-- COFIRA - Identificadores por secuencia con asignación por bloques
+-- Version: 5
+-- Description: Con IDENTITY Hibernate tiene que ejecutar cada INSERT al momento para conocer el id y
+--              no puede agruparlos en lotes JDBC. Las entidades pasan a usar las secuencias de las
+--              columnas BIGSERIAL con el optimizador pooled: cada nextval reserva 50 ids, así que el
+--              incremento de la secuencia tiene que coincidir con el allocationSize de las entidades.
+--              El DEFAULT nextval de las columnas se mantiene para los INSERT escritos en SQL
+-- ========================================
+
+ALTER SEQUENCE usuarios_id_seq INCREMENT BY 50;
+ALTER SEQUENCE revoked_tokens_id_seq INCREMENT BY 50;
+ALTER SEQUENCE objetivos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE plan_id_seq INCREMENT BY 50;
+ALTER SEQUENCE sala_de_gimnasio_id_seq INCREMENT BY 50;
+ALTER SEQUENCE ejercicios_id_seq INCREMENT BY 50;
+ALTER SEQUENCE alimento_id_seq INCREMENT BY 50;
+ALTER SEQUENCE rutina_alimentacion_id_seq INCREMENT BY 50;
+ALTER SEQUENCE rutina_ejercicio_id_seq INCREMENT BY 50;
+ALTER SEQUENCE dia_alimentacion_id_seq INCREMENT BY 50;
+ALTER SEQUENCE desayuno_id_seq INCREMENT BY 50;
+ALTER SEQUENCE almuerzo_id_seq INCREMENT BY 50;
+ALTER SEQUENCE comida_id_seq INCREMENT BY 50;
+ALTER SEQUENCE merienda_id_seq INCREMENT BY 50;
+ALTER SEQUENCE cena_id_seq INCREMENT BY 50;
+ALTER SEQUENCE dia_ejercicio_id_seq INCREMENT BY 50;
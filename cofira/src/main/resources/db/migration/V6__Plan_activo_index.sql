@@ -0,0 +1,9 @@
+-- ========================================
+-- COFIRA - Índice parcial de planes activos
+-- Version: 6
+-- Description: Los procesos de facturación y notificaciones recorren los usuarios con plan activo por
+--              cursor sobre usuario_id. El índice solo contiene los planes activos, así que cada página
+--              es un recorrido ordenado y acotado sin filtrar los planes inactivos
+-- ========================================
+
+CREATE INDEX IF NOT EXISTS idx_plan_activo_usuario ON plan(usuario_id) WHERE subscripcion_activa;
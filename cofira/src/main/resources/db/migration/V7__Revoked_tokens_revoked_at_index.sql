@@ -0,0 +1,8 @@
+-- ========================================
+-- COFIRA - Índice de tokens revocados por fecha de revocación
+-- Version: 7
+-- Description: Cada instancia lee cada pocos segundos los tokens revocados recientemente para ver los
+--              logouts hechos en las demás; con este índice la lectura solo recorre las filas nuevas
+-- ========================================
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
@@ -0,0 +1,46 @@
+package com.gestioneventos.cofira.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void testUpgradeEncoding_OnlyWhenCostIsBelowTarget() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secreto")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secreto")));
+        // Un hash de una instancia calibrada con más coste no se rebaja: no oscila entre instancias
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secreto")));
+        assertFalse(encoder.upgradeEncoding("no-es-bcrypt"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void testCalibrar_StaysWithinBounds() {
+        assertEquals(4, AdaptiveBCryptPasswordEncoder.calibrar(0, 4, 6));
+        assertEquals(6, AdaptiveBCryptPasswordEncoder.calibrar(60_000, 4, 6));
+    }
+
+    @Test
+    void testDelegatingEncoder_MatchesAndUpgradesLegacyHashes() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new AdaptiveBCryptPasswordEncoder(5)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        String legacy = new BCryptPasswordEncoder(4).encode("secreto");
+        assertTrue(encoder.matches("secreto", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+
+        String actual = encoder.encode("secreto");
+        assertTrue(actual.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secreto", actual));
+        assertFalse(encoder.upgradeEncoding(actual));
+    }
+}
@@ -0,0 +1,115 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.Rol;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AuthTokenFilterTest {
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocadoIndex tokenRevocadoIndex;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private AuthTokenFilter authTokenFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(authTokenFilter, "epocaTokenCache", new EpocaTokenCache(usuarioRepository, 60, 1000));
+        when(tokenRevocadoIndex.estaRevocado(anyString())).thenReturn(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testTokenSinId_SeLeeDeLaBaseDeDatosYSeCompruebaLaEpoca() throws Exception {
+        ReflectionTestUtils.setField(authTokenFilter, "origenPrincipal", OrigenPrincipal.TOKEN);
+        // Token anterior al claim "id" y a la época: cuenta como época 0
+        conToken(new JwtClaims(null, "ana", "jti-1", List.of("ROLE_ADMIN"), null, 0L, new Date()));
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(principal(7L, "ROLE_USER"));
+        when(usuarioRepository.findEpocaTokenById(7L)).thenReturn(Optional.of(0L));
+
+        filtrar();
+
+        verify(userDetailsService).loadUserByUsername("ana");
+        // Los roles salen de la base de datos, no del token
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")),
+                List.copyOf(SecurityContextHolder.getContext().getAuthentication().getAuthorities()));
+    }
+
+    @Test
+    void testTokenSinId_RechazadoTrasCerrarTodasLasSesiones() throws Exception {
+        ReflectionTestUtils.setField(authTokenFilter, "origenPrincipal", OrigenPrincipal.CACHE);
+        conToken(new JwtClaims(null, "ana", "jti-1", List.of("ROLE_USER"), null, 0L, new Date()));
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(principal(7L, "ROLE_USER"));
+        when(usuarioRepository.findEpocaTokenById(7L)).thenReturn(Optional.of(1L));
+
+        filtrar();
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsCache, never()).get(anyString());
+    }
+
+    @Test
+    void testCambioDeRol_InvalidaLosTokensEmitidosAntes() throws Exception {
+        ReflectionTestUtils.setField(authTokenFilter, "origenPrincipal", OrigenPrincipal.TOKEN);
+        Usuario usuario = Usuario.builder().id(7L).username("ana").rol(Rol.ADMIN).build();
+        usuario.setRol(Rol.USER);
+        when(usuarioRepository.findEpocaTokenById(7L)).thenReturn(Optional.of(usuario.getEpocaToken()));
+        conToken(new JwtClaims(7L, "ana", "jti-1", List.of("ROLE_ADMIN"), "ana@cofira.com", 0L, new Date()));
+
+        filtrar();
+
+        assertEquals(1L, usuario.getEpocaToken());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private void conToken(JwtClaims claims) {
+        when(jwtUtils.verifyAndDecode("token")).thenReturn(Optional.of(claims));
+    }
+
+    private void filtrar() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private UserDetailsImpl principal(Long id, String rol) {
+        return new UserDetailsImpl(id, "ana", "ana@cofira.com", "hash", List.of(new SimpleGrantedAuthority(rol)));
+    }
+}
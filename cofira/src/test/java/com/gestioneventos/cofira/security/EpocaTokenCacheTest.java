@@ -0,0 +1,52 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EpocaTokenCacheTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private EpocaTokenCache epocaTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        epocaTokenCache = new EpocaTokenCache(usuarioRepository, 60, 1000);
+    }
+
+    @Test
+    void testEsVigente_ComparesAgainstCachedEpoch() {
+        when(usuarioRepository.findEpocaTokenById(1L)).thenReturn(Optional.of(2L));
+
+        assertFalse(epocaTokenCache.esVigente(1L, 1L));
+        assertTrue(epocaTokenCache.esVigente(1L, 2L));
+        verify(usuarioRepository, times(1)).findEpocaTokenById(1L);
+    }
+
+    @Test
+    void testEsVigente_DeletedUserRejectsEveryToken() {
+        when(usuarioRepository.findEpocaTokenById(99L)).thenReturn(Optional.empty());
+
+        assertFalse(epocaTokenCache.esVigente(99L, 0L));
+    }
+
+    @Test
+    void testActualizar_TakesEffectImmediately() {
+        when(usuarioRepository.findEpocaTokenById(1L)).thenReturn(Optional.of(0L));
+        assertTrue(epocaTokenCache.esVigente(1L, 0L));
+
+        epocaTokenCache.actualizar(1L, 1L);
+
+        assertFalse(epocaTokenCache.esVigente(1L, 0L));
+    }
+}
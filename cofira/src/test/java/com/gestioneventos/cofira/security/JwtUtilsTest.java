@@ -0,0 +1,77 @@
+package com.gestioneventos.cofira.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private static final String SECRET =
+            "f5a0cce32ea6a14fa700fa932d20769c53494a9088c588273fc554ede6599cfc6140e4fbd48417d5656d50af1ef35a5d7eefc75394a8b399457556f4db6ec1d2";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 60000);
+
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "testuser", "test@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @Test
+    void testVerifyAndDecode_ValidToken() {
+        Optional<JwtClaims> claims = jwtUtils.verifyAndDecode(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals(1L, claims.get().userId());
+        assertEquals("testuser", claims.get().subject());
+        assertEquals("test@example.com", claims.get().email());
+        assertEquals(List.of("ROLE_ADMIN"), claims.get().roles());
+        assertEquals(jwtUtils.getJtiFromJwtToken(token), claims.get().jti());
+        assertEquals(jwtUtils.getExpirationFromJwtToken(token), claims.get().expiration());
+    }
+
+    @Test
+    void testVerifyAndDecode_TamperedToken() {
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertTrue(jwtUtils.verifyAndDecode(tampered).isEmpty());
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+    }
+
+    @Test
+    void testVerifyAndDecode_ExpiredToken() {
+        JwtUtils expiredUtils = new JwtUtils(SECRET, -1000);
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "testuser", "test@example.com", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String expired = expiredUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        assertTrue(jwtUtils.verifyAndDecode(expired).isEmpty());
+    }
+
+    @Test
+    void testVerifyAndDecode_Garbage() {
+        assertTrue(jwtUtils.verifyAndDecode("no-es-un-jwt").isEmpty());
+        assertTrue(jwtUtils.verifyAndDecode("").isEmpty());
+    }
+
+    @Test
+    void testClaims_AreImmutable() {
+        JwtClaims claims = jwtUtils.verifyAndDecode(token).orElseThrow();
+
+        assertThrows(UnsupportedOperationException.class, () -> claims.roles().add("ROLE_USER"));
+        claims.expiration().setTime(0);
+        assertNotEquals(0, claims.expiration().getTime());
+    }
+}
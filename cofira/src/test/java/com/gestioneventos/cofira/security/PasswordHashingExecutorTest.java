@@ -0,0 +1,74 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+
+    private MeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    private CountDownLatch liberar;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry, 1, 1, 200);
+        liberar = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void testEjecutar_ReturnsResult() {
+        assertEquals("hash", executor.ejecutar(() -> "hash"));
+        assertEquals(1, meterRegistry.get("cofira.password_hashing.wait").timer().count());
+    }
+
+    @Test
+    void testEjecutar_PropagatesRuntimeException() {
+        assertThrows(IllegalArgumentException.class, () -> executor.ejecutar(() -> {
+            throw new IllegalArgumentException("boom");
+        }));
+    }
+
+    @Test
+    void testEjecutar_RejectsWhenSaturated() throws Exception {
+        CountDownLatch ocupado = new CountDownLatch(1);
+        // Ocupa el único hilo y la única posición de la cola
+        CompletableFuture.runAsync(() -> executor.ejecutar(() -> {
+            ocupado.countDown();
+            return liberar.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(ocupado.await(1, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> {
+            try {
+                executor.ejecutar(() -> true);
+            } catch (ServicioSaturadoException ignored) {
+                // La espera máxima vence mientras el hilo sigue ocupado
+            }
+        });
+        Thread.sleep(50);
+
+        assertThrows(ServicioSaturadoException.class, () -> executor.ejecutar(() -> true));
+        assertTrue(meterRegistry.get("cofira.password_hashing.rejected").counter().count() >= 1);
+    }
+
+    @Test
+    void testEjecutar_TimesOutWhenWaitExceedsMaximum() {
+        assertThrows(ServicioSaturadoException.class, () -> executor.ejecutar(() -> liberar.await(5, TimeUnit.SECONDS)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.entities.TokenRevocado;
+import com.gestioneventos.cofira.repositories.TokenRevocadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocadoIndexTest {
+
+    @Mock
+    private TokenRevocadoRepository tokenRevocadoRepository;
+
+    private TokenRevocadoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new TokenRevocadoIndex(tokenRevocadoRepository, 1000, 0.01);
+    }
+
+    @Test
+    void testEstaRevocado_BeforeLoadFallsBackToDatabase() {
+        when(tokenRevocadoRepository.existsByJti("jti-1")).thenReturn(true);
+
+        assertTrue(index.estaRevocado("jti-1"));
+        verify(tokenRevocadoRepository).existsByJti("jti-1");
+    }
+
+    @Test
+    void testCargar_WarmsFromDatabase() {
+        TokenRevocado token = TokenRevocado.builder()
+                .jti("jti-revocado")
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .revokedAt(LocalDateTime.now())
+                .build();
+        when(tokenRevocadoRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(token));
+
+        index.cargar();
+
+        assertTrue(index.estaRevocado("jti-revocado"));
+        assertFalse(index.estaRevocado("jti-valido"));
+        verify(tokenRevocadoRepository, never()).existsByJti(anyString());
+    }
+
+    @Test
+    void testRegistrar_IsVisibleWithoutDatabase() {
+        when(tokenRevocadoRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of());
+        index.cargar();
+
+        index.registrar("jti-logout", LocalDateTime.now().plusHours(1));
+
+        assertTrue(index.estaRevocado("jti-logout"));
+        verify(tokenRevocadoRepository, never()).existsByJti(anyString());
+    }
+
+    @Test
+    void testEliminarExpirados_RemovesExpiredEntries() {
+        when(tokenRevocadoRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of());
+        index.cargar();
+        index.registrar("jti-expirado", LocalDateTime.now().minusMinutes(1));
+        index.registrar("jti-vigente", LocalDateTime.now().plusHours(1));
+
+        index.eliminarExpirados();
+
+        assertEquals(1, index.size());
+        assertTrue(index.estaRevocado("jti-vigente"));
+        assertFalse(index.estaRevocado("jti-expirado"));
+    }
+
+    @Test
+    void testSincronizar_IncorporaLogoutsDeOtrasInstancias() {
+        when(tokenRevocadoRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of());
+        index.cargar();
+        TokenRevocado otraInstancia = TokenRevocado.builder()
+                .jti("jti-otra-instancia")
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .revokedAt(LocalDateTime.now())
+                .build();
+        when(tokenRevocadoRepository.findByRevokedAtAfterAndExpiresAtAfter(any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(List.of(otraInstancia));
+        assertFalse(index.estaRevocado("jti-otra-instancia"));
+
+        index.sincronizar();
+
+        assertTrue(index.estaRevocado("jti-otra-instancia"));
+        verify(tokenRevocadoRepository, never()).existsByJti(anyString());
+    }
+
+    @Test
+    void testSincronizar_VentanaSeSolapaConLaLecturaAnterior() {
+        when(tokenRevocadoRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of());
+        LocalDateTime antesDeCargar = LocalDateTime.now();
+        index.cargar();
+
+        index.sincronizar();
+
+        ArgumentCaptor<LocalDateTime> desde = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(tokenRevocadoRepository).findByRevokedAtAfterAndExpiresAtAfter(desde.capture(), any(LocalDateTime.class));
+        // Empieza antes de la carga: una revocación confirmada tarde durante la carga no se pierde
+        assertTrue(desde.getValue().isBefore(antesDeCargar));
+    }
+
+    @Test
+    void testSincronizar_AntesDeCargarNoHaceNada() {
+        index.sincronizar();
+
+        verifyNoInteractions(tokenRevocadoRepository);
+    }
+}
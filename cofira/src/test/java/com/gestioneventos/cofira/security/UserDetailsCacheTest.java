@@ -0,0 +1,61 @@
+package com.gestioneventos.cofira.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserDetailsCacheTest {
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userDetailsCache = new UserDetailsCache(userDetailsService, 30, 100);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new UserDetailsImpl(1L, "alice",
+                "alice@example.com", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Test
+    void testGet_LoadsOnlyOnce() {
+        userDetailsCache.get("alice");
+        UserDetailsImpl userDetails = userDetailsCache.get("alice");
+
+        assertEquals(1L, userDetails.getId());
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void testInvalidate_ForcesReload() {
+        userDetailsCache.get("alice");
+        userDetailsCache.invalidate("alice");
+        userDetailsCache.get("alice");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void testFromClaims_BuildsPrincipalWithoutPassword() {
+        JwtClaims claims = new JwtClaims(7L, "bob", "jti", List.of("ROLE_ADMIN"), "bob@example.com", 3L, new Date());
+
+        UserDetailsImpl userDetails = UserDetailsImpl.fromClaims(claims);
+
+        assertEquals(7L, userDetails.getId());
+        assertEquals("bob", userDetails.getUsername());
+        assertEquals("bob@example.com", userDetails.getEmail());
+        assertNull(userDetails.getPassword());
+        assertEquals(3L, userDetails.getEpocaToken());
+        assertEquals("ROLE_ADMIN", userDetails.getAuthorities().iterator().next().getAuthority());
+    }
+}
@@ -0,0 +1,77 @@
+package com.gestioneventos.cofira.security;
+
+import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.Rol;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Se ejecuta sobre H2 con el esquema generado por Hibernate: las migraciones de Flyway son específicas de PostgreSQL
+@DataJpaTest
+@Import(UserDetailsServiceImpl.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class UserDetailsServiceImplTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(Usuario.builder()
+                .nombre("Alice Smith")
+                .username("alice")
+                .email("alice@example.com")
+                .password("hash")
+                .rol(Rol.ADMIN)
+                .epocaToken(3L)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testLoadUserByUsername_UnaSolaSelect() {
+        UserDetails userDetails = userDetailsService.loadUserByUsername("alice");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        UserDetailsImpl usuario = (UserDetailsImpl) userDetails;
+        assertNotNull(usuario.getId());
+        assertEquals("alice", usuario.getUsername());
+        assertEquals("alice@example.com", usuario.getEmail());
+        assertEquals("hash", usuario.getPassword());
+        assertEquals(3L, usuario.getEpocaToken());
+        assertEquals("ROLE_ADMIN", usuario.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testLoadUserByUsername_NoExiste() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nadie"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
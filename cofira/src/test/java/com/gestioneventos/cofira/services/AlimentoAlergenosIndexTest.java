@@ -0,0 +1,174 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import com.gestioneventos.cofira.repositories.AlimentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AlimentoAlergenosIndexTest {
+
+    private AlimentoRepository alimentoRepository;
+    private AlimentoAlergenosIndex index;
+
+    @BeforeEach
+    void setUp() {
+        alimentoRepository = mock(AlimentoRepository.class);
+        when(alimentoRepository.findAllConIngredientes()).thenReturn(List.of(
+                alimento(10L, "Tortilla de patatas", "Huevo", "patata", "cebolla"),
+                alimento(20L, "Tarta de nueces", "harina de trigo", "Nueces Pecanas", "huevo"),
+                alimento(30L, "Ensalada", "lechuga", "tomate"),
+                alimento(40L, "Pan de molde", "Harina de trigo", "levadura")));
+        index = new AlimentoAlergenosIndex(alimentoRepository);
+        index.cargar();
+    }
+
+    @Test
+    void testIdsSeguros_SinAlergiasDevuelveTodo() {
+        assertEquals(Set.of(10L, 20L, 30L, 40L), seguros(List.of()));
+    }
+
+    @Test
+    void testIdsSeguros_ExcluyeIngredienteCompletoYPorPalabra() {
+        assertEquals(Set.of(30L, 40L), seguros(List.of("HUEVO")));
+        assertEquals(Set.of(10L, 30L), seguros(List.of("harina de trigo")));
+        // "nueces" coincide con una palabra de "Nueces Pecanas"
+        assertEquals(Set.of(10L, 30L, 40L), seguros(List.of("nueces")));
+        assertEquals(Set.of(30L), seguros(List.of("huevo", "  Trigo ")));
+    }
+
+    @Test
+    void testIdsSeguros_AlergiaDeVariasPalabrasDentroDeUnIngrediente() {
+        when(alimentoRepository.findConIngredientesById(50L))
+                .thenReturn(Optional.of(alimento(50L, "Barrita", "avena", "mezcla de frutos secos")));
+        when(alimentoRepository.findConIngredientesById(60L))
+                .thenReturn(Optional.of(alimento(60L, "Macedonia", "frutos rojos", "plátanos secos")));
+        index.alModificarAlimento(new AlimentoModificadoEvent(50L));
+        index.alModificarAlimento(new AlimentoModificadoEvent(60L));
+
+        // La frase tiene que aparecer seguida: "frutos rojos" + "plátanos secos" no es "frutos secos"
+        assertEquals(Set.of(10L, 20L, 30L, 40L, 60L), seguros(List.of("Frutos  Secos")));
+        assertEquals(Set.of(10L, 20L, 30L, 40L), seguros(List.of("frutos")));
+    }
+
+    @Test
+    void testIdsSeguros_AlergiaMasLargaQueLasClaves() {
+        when(alimentoRepository.findConIngredientesById(50L)).thenReturn(Optional.of(
+                alimento(50L, "Galletas", "aceite de semillas de girasol alto oleico")));
+        index.alModificarAlimento(new AlimentoModificadoEvent(50L));
+
+        assertEquals(Set.of(10L, 20L, 30L, 40L), seguros(List.of("semillas de girasol alto oleico")));
+        assertEquals(Set.of(10L, 20L, 30L, 40L, 50L), seguros(List.of("semillas de girasol alto linoleico")));
+    }
+
+    @Test
+    void testIdsSeguros_Paginado() {
+        Page<Long> primera = index.idsSeguros(List.of("cebolla"), PageRequest.of(0, 2));
+        Page<Long> segunda = index.idsSeguros(List.of("cebolla"), PageRequest.of(1, 2));
+
+        assertEquals(List.of(20L, 30L), primera.getContent());
+        assertEquals(List.of(40L), segunda.getContent());
+        assertEquals(3, segunda.getTotalElements());
+        assertTrue(index.idsSeguros(List.of("cebolla"), PageRequest.of(2, 2)).getContent().isEmpty());
+    }
+
+    @Test
+    void testIdsSeguros_SoloAdmiteOrdenPorIdAscendente() {
+        assertEquals(List.of(20L, 30L),
+                index.idsSeguros(List.of("cebolla"), PageRequest.of(0, 2, Sort.by("id"))).getContent());
+        assertThrows(IllegalArgumentException.class,
+                () -> index.idsSeguros(List.of(), PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.idsSeguros(List.of(), PageRequest.of(0, 2, Sort.by("nombre"))));
+    }
+
+    @Test
+    void testCargar_NoPierdeCambiosRecibidosDuranteLaCarga() {
+        // El alimento 50 se crea después de que la carga lea el catálogo, pero antes de sustituir el índice
+        when(alimentoRepository.findConIngredientesById(50L))
+                .thenReturn(Optional.of(alimento(50L, "Crema", "cacahuete")));
+        when(alimentoRepository.findAllConIngredientes()).thenAnswer(invocacion -> {
+            index.alModificarAlimento(new AlimentoModificadoEvent(50L));
+            return List.of(alimento(10L, "Tortilla de patatas", "huevo", "patata"));
+        });
+
+        index.cargar();
+
+        assertEquals(Set.of(10L, 50L), seguros(List.of()));
+        assertEquals(Set.of(10L), seguros(List.of("cacahuete")));
+    }
+
+    @Test
+    void testAlModificarAlimento_AplicaLosCambiosEnOrden() throws Exception {
+        // La primera lectura devuelve los ingredientes antiguos y tarda; la segunda ya ve los nuevos
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        AtomicInteger lecturas = new AtomicInteger();
+        when(alimentoRepository.findConIngredientesById(10L)).thenAnswer(invocacion -> {
+            if (lecturas.incrementAndGet() == 1) {
+                leyendo.countDown();
+                continuar.await();
+                return Optional.of(alimento(10L, "Tortilla", "huevo", "cacahuete"));
+            }
+            return Optional.of(alimento(10L, "Tortilla", "huevo"));
+        });
+
+        Thread primero = new Thread(() -> index.alModificarAlimento(new AlimentoModificadoEvent(10L)));
+        primero.start();
+        leyendo.await();
+        Thread segundo = new Thread(() -> index.alModificarAlimento(new AlimentoModificadoEvent(10L)));
+        segundo.start();
+        // El segundo cambio espera a que se aplique el primero en lugar de adelantarlo
+        while (segundo.getState() != Thread.State.BLOCKED && segundo.isAlive()) {
+            Thread.onSpinWait();
+        }
+        continuar.countDown();
+        primero.join();
+        segundo.join();
+
+        assertTrue(seguros(List.of("cacahuete")).contains(10L));
+    }
+
+    @Test
+    void testIdsSeguros_AlergiaDesconocidaNoExcluyeNada() {
+        assertEquals(Set.of(10L, 20L, 30L, 40L), seguros(List.of("marisco")));
+    }
+
+    @Test
+    void testAlModificarAlimento_ActualizaSoloEseAlimento() {
+        when(alimentoRepository.findConIngredientesById(30L))
+                .thenReturn(Optional.of(alimento(30L, "Ensalada", "lechuga", "huevo duro")));
+        when(alimentoRepository.findConIngredientesById(40L)).thenReturn(Optional.empty());
+        when(alimentoRepository.findConIngredientesById(50L))
+                .thenReturn(Optional.of(alimento(50L, "Fruta", "manzana")));
+
+        index.alModificarAlimento(new AlimentoModificadoEvent(30L));
+        index.alModificarAlimento(new AlimentoModificadoEvent(40L));
+        index.alModificarAlimento(new AlimentoModificadoEvent(50L));
+
+        assertEquals(Set.of(50L), seguros(List.of("huevo")));
+        assertEquals(Set.of(10L, 30L, 50L), seguros(List.of("trigo")));
+        assertEquals(Set.of(10L, 20L, 50L), seguros(List.of("tomate", "lechuga")));
+    }
+
+    private Set<Long> seguros(List<String> alergias) {
+        return new HashSet<>(index.idsSeguros(alergias, PageRequest.of(0, 100)).getContent());
+    }
+
+    private Alimento alimento(Long id, String nombre, String... ingredientes) {
+        return Alimento.builder().id(id).nombre(nombre).ingredientes(List.of(ingredientes)).build();
+    }
+}
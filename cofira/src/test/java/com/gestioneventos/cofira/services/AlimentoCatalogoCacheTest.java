@@ -0,0 +1,81 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlimentoCatalogoCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AlimentoCatalogoCache cache;
+    private AtomicInteger cargas;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AlimentoCatalogoCache(meterRegistry, 3, 600);
+        cargas = new AtomicInteger();
+    }
+
+    @Test
+    void testObtenerPorId_AciertosYFallosEnMetricas() {
+        cache.obtenerPorId(1L, this::alimento);
+        cache.obtenerPorId(1L, this::alimento);
+        cache.obtenerPorId(1L, this::alimento);
+
+        assertEquals(1, cargas.get());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "alimentos.por_id").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "alimentos.por_id").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testObtenerPorIds_SoloCargaLosQueFaltan() {
+        cache.obtenerPorId(1L, this::alimento);
+
+        Map<Long, AlimentoDTO> alimentos = cache.obtenerPorIds(List.of(1L, 2L, 3L), faltan -> {
+            assertEquals(Set.of(2L, 3L), faltan);
+            return faltan.stream().collect(Collectors.toMap(id -> id, this::alimento));
+        });
+
+        assertEquals(Set.of(1L, 2L, 3L), alimentos.keySet());
+        assertEquals(3, cargas.get());
+    }
+
+    @Test
+    void testAlModificarAlimento_InvalidaSoloEseAlimento() {
+        cache.obtenerPorId(1L, this::alimento);
+        cache.obtenerPorId(2L, this::alimento);
+
+        cache.alModificarAlimento(new AlimentoModificadoEvent(1L));
+        cache.obtenerPorId(1L, this::alimento);
+        cache.obtenerPorId(2L, this::alimento);
+
+        // El id 1 se recarga; el id 2 sigue en caché
+        assertEquals(3, cargas.get());
+    }
+
+    private AlimentoDTO alimento(Long id) {
+        cargas.incrementAndGet();
+        return dto(id);
+    }
+
+    private AlimentoDTO dto(Long id) {
+        AlimentoDTO dto = new AlimentoDTO();
+        dto.setId(id);
+        dto.setNombre("alimento" + id);
+        dto.setIngredientes(List.of());
+        return dto;
+    }
+}
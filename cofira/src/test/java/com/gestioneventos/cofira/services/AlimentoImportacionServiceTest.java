@@ -0,0 +1,180 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gestioneventos.cofira.dto.alimento.ImportacionAlimentosDTO;
+import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.enums.FormatoImportacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// H2 en modo PostgreSQL para poder reservar ids con nextval('alimento_id_seq')
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AlimentoImportacionService.class, AlimentoImportacionServiceTest.Config.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacion-alimentos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cofira.alimentos.import.parallelism=2",
+        "cofira.alimentos.import.batch-size=3",
+        "cofira.alimentos.import.max-errors=1"
+})
+public class AlimentoImportacionServiceTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private AlimentoImportacionService importacionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private AlimentoCatalogoCache alimentoCatalogoCache;
+
+    @MockBean
+    private AlimentoSugerenciasIndex alimentoSugerenciasIndex;
+
+    @MockBean
+    private AlimentoAlergenosIndex alimentoAlergenosIndex;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(Alimento.builder().nombre("Pan integral").ingredientes(List.of("harina")).build());
+        entityManager.flush();
+        // Los mocks de los índices también reciben el ApplicationReadyEvent del arranque del contexto
+        clearInvocations(alimentoSugerenciasIndex, alimentoAlergenosIndex);
+    }
+
+    @Test
+    void testImportarCsv_DeduplicaPorNombreNormalizadoEInsertaPorBloques() throws IOException {
+        String csv = """
+                nombre,ingredientes
+                Tortilla de patatas,huevo; patata ;cebolla;huevo
+                "Pan, Integral",harina
+
+                PLÁTANO,
+                Platano,azúcar
+                ,harina
+                Arroz,arroz;;agua
+                Lentejas,lentejas,extra
+                Sopa,caldo
+                """;
+
+        ImportacionAlimentosDTO resultado = importacionService.importar(flujo(csv), FormatoImportacion.CSV);
+
+        assertEquals(8, resultado.getFilasProcesadas());
+        assertEquals(4, resultado.getAlimentosCreados());
+        assertEquals(6, resultado.getIngredientesCreados());
+        assertEquals(2, resultado.getDuplicados());
+        assertEquals(2, resultado.getFilasRechazadas());
+        // Solo se detalla el primer error
+        assertEquals(1, resultado.getErrores().size());
+        assertTrue(resultado.isErroresTruncados());
+        assertEquals(7, resultado.getErrores().get(0).getFila());
+        assertEquals("El nombre del alimento no puede estar vacío", resultado.getErrores().get(0).getMensaje());
+        assertTrue(resultado.getFilasPorSegundo() > 0);
+
+        assertEquals(List.of("huevo", "patata", "cebolla"), jdbcTemplate.queryForList(
+                "SELECT i.ingrediente FROM ingredientes_alimento i JOIN alimento a ON a.id = i.alimento_id "
+                        + "WHERE a.nombre = 'Tortilla de patatas'", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM alimento WHERE nombre IN ('PLÁTANO', 'Platano')", Integer.class));
+        verify(alimentoCatalogoCache).invalidarTodo();
+        verify(alimentoSugerenciasIndex).cargar();
+        verify(alimentoAlergenosIndex).cargar();
+
+        // Los ids reservados no chocan con los que reparte Hibernate después
+        Alimento nuevo = entityManager.persistFlushFind(Alimento.builder().nombre("Yogur").build());
+        assertNotNull(nuevo.getId());
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM alimento", Integer.class));
+    }
+
+    @Test
+    void testImportarNdjson() throws IOException {
+        String ndjson = """
+                {"nombre":"Gazpacho","ingredientes":["tomate","pepino","ajo"]}
+                {"nombre":"pan integral"}
+                {no es json
+                """;
+
+        ImportacionAlimentosDTO resultado = importacionService.importar(flujo(ndjson), FormatoImportacion.NDJSON);
+
+        assertEquals(3, resultado.getFilasProcesadas());
+        assertEquals(1, resultado.getAlimentosCreados());
+        assertEquals(1, resultado.getDuplicados());
+        assertEquals(3, resultado.getErrores().get(0).getFila());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ingredientes_alimento i "
+                + "JOIN alimento a ON a.id = i.alimento_id WHERE a.nombre = 'Gazpacho'", Integer.class));
+    }
+
+    @Test
+    void testImportar_SinAltasNoRecargaLosIndices() throws IOException {
+        ImportacionAlimentosDTO resultado = importacionService.importar(flujo("nombre\nPan integral\n"),
+                FormatoImportacion.CSV);
+
+        assertEquals(1, resultado.getDuplicados());
+        verify(alimentoSugerenciasIndex, never()).cargar();
+        assertThrows(IllegalArgumentException.class, () ->
+                importacionService.importar(flujo("ingredientes\nharina\n"), FormatoImportacion.CSV));
+    }
+
+    @Test
+    void testImportar_CortadaAMediasRecargaLosIndicesConLoYaConfirmado() {
+        // El primer bloque se confirma mientras se lee el segundo; la lectura falla justo después
+        InputStream cortado = new SequenceInputStream(flujo("nombre\nArroz\nLentejas\nSopa\nGazpacho\nPisto\nPaella\n"),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Conexión cerrada");
+                    }
+                });
+
+        assertThrows(IOException.class, () -> importacionService.importar(cortado, FormatoImportacion.CSV));
+
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM alimento WHERE nombre IN ('Arroz', 'Lentejas', 'Sopa')", Integer.class));
+        verify(alimentoCatalogoCache).invalidarTodo();
+        verify(alimentoSugerenciasIndex).cargar();
+        verify(alimentoAlergenosIndex).cargar();
+    }
+
+    private InputStream flujo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
+import com.gestioneventos.cofira.entities.Alimento;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(AlimentoService.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class AlimentoServicePaginacionTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AlimentoService alimentoService;
+
+    @MockBean
+    private AlimentoCatalogoCache alimentoCatalogoCache;
+
+    @MockBean
+    private AlimentoSugerenciasIndex alimentoSugerenciasIndex;
+
+    @MockBean
+    private AlimentoAlergenosIndex alimentoAlergenosIndex;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        IntStream.rangeClosed(1, 60).forEach(i -> entityManager.persist(Alimento.builder()
+                .nombre((i % 2 == 0 ? "Manzana " : "Pera ") + i)
+                .ingredientes(List.of("ingrediente " + i, "agua"))
+                .build()));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testListarAlimentos_IngredientesDeLaPaginaEnUnaConsulta() {
+        Page<AlimentoDTO> pagina = alimentoService.listarAlimentos(null, PageRequest.of(1, 25, Sort.by("id")));
+
+        // Página, total y un único lote de ingredientes, en lugar de una consulta de ingredientes por alimento
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(25, pagina.getNumberOfElements());
+        assertEquals(60, pagina.getTotalElements());
+        assertEquals(List.of("ingrediente 26", "agua"), pagina.getContent().get(0).getIngredientes());
+    }
+
+    @Test
+    void testListarAlimentos_PorNombre() {
+        Page<AlimentoDTO> pagina = alimentoService.listarAlimentos("manz", PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(30, pagina.getTotalElements());
+        assertTrue(pagina.getContent().stream().allMatch(a -> a.getNombre().startsWith("Manzana")));
+    }
+}
@@ -2,27 +2,66 @@ package com.gestioneventos.cofira.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.gestioneventos.cofira.dto.alimento.AlimentoDTO;
+import com.gestioneventos.cofira.dto.alimento.ModificarAlimentoDTO;
 import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
 import com.gestioneventos.cofira.repositories.AlimentoRepository;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.UserDetailsImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class AlimentoServiceTest {
 
     @Mock
     private AlimentoRepository alimentoRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AlimentoSugerenciasIndex alimentoSugerenciasIndex;
+
+    @Mock
+    private AlimentoAlergenosIndex alimentoAlergenosIndex;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Spy
+    private AlimentoCatalogoCache alimentoCatalogoCache = new AlimentoCatalogoCache(new SimpleMeterRegistry(), 100, 600);
+
     @InjectMocks
     private AlimentoService alimentoService;
 
@@ -37,13 +76,153 @@ public class AlimentoServiceTest {
         alimento.setIngredientes(Collections.singletonList("Manzana"));
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testListarAlimentosSeguros_ConAlergiasExplicitas() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(alimentoAlergenosIndex.idsSeguros(List.of("trigo"), pageable))
+                .thenReturn(new PageImpl<>(List.of(1L), pageable, 41));
+        when(alimentoRepository.findConIngredientesByIdIn(List.of(1L))).thenReturn(List.of(alimento));
+
+        Page<AlimentoDTO> seguros = alimentoService.listarAlimentosSeguros(List.of("trigo"), pageable);
+
+        assertEquals(1, seguros.getContent().size());
+        assertEquals("Manzana", seguros.getContent().get(0).getNombre());
+        assertEquals(41, seguros.getTotalElements());
+        verify(usuarioRepository, never()).findAlergiasById(any());
+        verify(alimentoRepository, never()).findAllConIngredientes();
+    }
+
+    @Test
+    void testListarAlimentosSeguros_SinAlergiasUsaLasDelUsuario() {
+        UserDetailsImpl userDetails = new UserDetailsImpl(7L, "ana", "ana@cofira.com", "x", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        Pageable pageable = PageRequest.of(0, 20);
+        when(usuarioRepository.findAlergiasById(7L)).thenReturn(List.of("manzana"));
+        when(alimentoAlergenosIndex.idsSeguros(List.of("manzana"), pageable)).thenReturn(Page.empty(pageable));
+
+        assertEquals(0, alimentoService.listarAlimentosSeguros(null, pageable).getTotalElements());
+        verify(alimentoAlergenosIndex).idsSeguros(List.of("manzana"), pageable);
+    }
+
     @Test
     void testListarAlimentos() {
-        when(alimentoRepository.findAll()).thenReturn(Collections.singletonList(alimento));
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
+        when(alimentoRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(alimento), pageable, 1));
+
+        Page<AlimentoDTO> alimentos = alimentoService.listarAlimentos("  ", pageable);
+
+        assertEquals(1, alimentos.getTotalElements());
+        assertEquals("Manzana", alimentos.getContent().get(0).getNombre());
+        verify(alimentoRepository, never()).findAllConIngredientes();
+    }
+
+    @Test
+    void testListarAlimentos_PorNombreYTamanoMaximo() {
+        Pageable pedido = PageRequest.of(2, 5000, Sort.by("nombre"));
+        Pageable acotado = PageRequest.of(2, 100, Sort.by("nombre"));
+        when(alimentoRepository.findByNombrePaginado("%manz%", acotado))
+                .thenReturn(new PageImpl<>(List.of(alimento), acotado, 201));
+
+        Page<AlimentoDTO> alimentos = alimentoService.listarAlimentos(" Manz ", pedido);
+
+        assertEquals(100, alimentos.getSize());
+        assertEquals(201, alimentos.getTotalElements());
+    }
+
+    @Test
+    void testListarAlimentosSeguros_SoloLeeLosQueFaltanEnLaCache() {
+        Alimento pan = Alimento.builder().id(2L).nombre("Pan").ingredientes(List.of("trigo")).build();
+        Pageable pedido = PageRequest.of(0, 5000);
+        Pageable acotado = PageRequest.of(0, 100);
+        when(alimentoAlergenosIndex.idsSeguros(List.of(), acotado))
+                .thenReturn(new PageImpl<>(List.of(1L, 2L), acotado, 2));
+        when(alimentoRepository.findConIngredientesById(1L)).thenReturn(Optional.of(alimento));
+        when(alimentoRepository.findConIngredientesByIdIn(List.of(2L))).thenReturn(List.of(pan));
+        AlimentoDTO enCache = alimentoService.obtenerAlimento(1L);
+
+        Page<AlimentoDTO> primera = alimentoService.listarAlimentosSeguros(List.of(), pedido);
+        Page<AlimentoDTO> segunda = alimentoService.listarAlimentosSeguros(List.of(), pedido);
+
+        assertEquals(List.of("Manzana", "Pan"), primera.getContent().stream().map(AlimentoDTO::getNombre).toList());
+        assertSame(enCache, primera.getContent().get(0));
+        assertSame(primera.getContent().get(1), segunda.getContent().get(1));
+        assertEquals(100, primera.getSize());
+        verify(alimentoRepository, times(1)).findConIngredientesByIdIn(any());
+    }
+
+    @Test
+    void testListarAlimentosSeguros_OmiteLosBorradosDespuesDelIndice() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(alimentoAlergenosIndex.idsSeguros(List.of(), pageable))
+                .thenReturn(new PageImpl<>(List.of(1L, 9L), pageable, 2));
+        when(alimentoRepository.findConIngredientesByIdIn(any())).thenReturn(List.of(alimento));
+
+        Page<AlimentoDTO> seguros = alimentoService.listarAlimentosSeguros(List.of(), pageable);
+
+        assertEquals(List.of(1L), seguros.getContent().stream().map(AlimentoDTO::getId).toList());
+    }
+
+    @Test
+    void testObtenerAlimento_DesdeLaCacheHastaQueSeModifica() {
+        when(alimentoRepository.findConIngredientesById(1L)).thenReturn(Optional.of(alimento));
+        when(alimentoRepository.findById(1L)).thenReturn(Optional.of(alimento));
+        when(alimentoRepository.save(any(Alimento.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        alimentoService.obtenerAlimento(1L);
+        alimentoService.obtenerAlimento(1L);
+        verify(alimentoRepository, times(1)).findConIngredientesById(1L);
+
+        ModificarAlimentoDTO cambios = new ModificarAlimentoDTO();
+        cambios.setNombre("Pera");
+        alimentoService.actualizarAlimento(1L, cambios);
+        verify(eventPublisher).publishEvent(new AlimentoModificadoEvent(1L));
+        // El publicador es un mock: se entrega el evento a mano, como haría Spring tras el commit
+        alimentoCatalogoCache.alModificarAlimento(new AlimentoModificadoEvent(1L));
+
+        assertEquals("Pera", alimentoService.obtenerAlimento(1L).getNombre());
+        verify(alimentoRepository, times(2)).findConIngredientesById(1L);
+    }
 
-        List<AlimentoDTO> alimentos = alimentoService.listarAlimentos(null);
+    @Test
+    void testObtenerAlimento_NoEncontrado() {
+        when(alimentoRepository.findConIngredientesById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RecursoNoEncontradoException.class, () -> alimentoService.obtenerAlimento(99L));
+    }
+
+    @Test
+    void testEliminarAlimento_PublicaEvento() {
+        when(alimentoRepository.findById(1L)).thenReturn(Optional.of(alimento));
+
+        alimentoService.eliminarAlimento(1L);
+
+        verify(alimentoRepository).delete(alimento);
+        verify(eventPublisher).publishEvent(new AlimentoModificadoEvent(1L));
+    }
+
+    @Test
+    void testBuscarAlimentos_UsaLaBusquedaLimitada() {
+        when(alimentoRepository.buscarPorNombre("%manz%", "Manz", Limit.of(5)))
+                .thenReturn(Collections.singletonList(alimento));
+
+        List<AlimentoDTO> alimentos = alimentoService.buscarAlimentos(" Manz ", 5);
 
         assertEquals(1, alimentos.size());
-        assertEquals("Manzana", alimentos.get(0).getNombre());
+        verify(alimentoRepository, never()).findAll();
+        verify(alimentoRepository, never()).findByNombreContainingIgnoreCase("Manz");
+    }
+
+    @Test
+    void testBuscarAlimentos_LimitePorDefecto() {
+        when(alimentoRepository.buscarPorNombre("%manzana%", "manzana", Limit.of(20)))
+                .thenReturn(Collections.singletonList(alimento));
+
+        assertEquals(1, alimentoService.buscarAlimentos("manzana", null).size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.alimento.SugerenciaAlimentoDTO;
+import com.gestioneventos.cofira.entities.Alimento;
+import com.gestioneventos.cofira.events.AlimentoModificadoEvent;
+import com.gestioneventos.cofira.repositories.AlimentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AlimentoSugerenciasIndexTest {
+
+    private AlimentoRepository alimentoRepository;
+    private AlimentoSugerenciasIndex index;
+
+    @BeforeEach
+    void setUp() {
+        alimentoRepository = mock(AlimentoRepository.class);
+        when(alimentoRepository.findAllConIngredientes()).thenReturn(List.of(
+                alimento(1L, "Tortilla de patatas", "huevo", "patata", "cebolla"),
+                alimento(2L, "Patatas fritas", "patata", "aceite"),
+                alimento(3L, "Ensalada César", "lechuga", "pollo", "parmesano"),
+                alimento(4L, "Pollo al horno", "pollo", "limón")));
+        index = new AlimentoSugerenciasIndex(alimentoRepository);
+        index.cargar();
+    }
+
+    @Test
+    void testSugerir_NombreAntesQueIngredientes() {
+        List<SugerenciaAlimentoDTO> sugerencias = index.sugerir("pata", null);
+
+        // "Patatas fritas" empieza por la consulta, la tortilla la contiene en el nombre
+        assertEquals(List.of(2L, 1L), ids(sugerencias));
+        assertEquals("Patatas fritas", sugerencias.get(0).getNombre());
+    }
+
+    @Test
+    void testSugerir_SinTildesNiMayusculas() {
+        assertEquals(List.of(3L), ids(index.sugerir("CESAR", null)));
+        assertEquals(List.of(4L), ids(index.sugerir("limon", null)));
+    }
+
+    @Test
+    void testSugerir_TodasLasPalabrasDebenCoincidir() {
+        assertEquals(List.of(4L, 3L), ids(index.sugerir("pol", null)));
+        assertEquals(List.of(4L), ids(index.sugerir("pollo hor", null)));
+        assertTrue(index.sugerir("pollo patata", null).isEmpty());
+        assertTrue(index.sugerir("  ", null).isEmpty());
+    }
+
+    @Test
+    void testSugerir_Limite() {
+        when(alimentoRepository.findAllConIngredientes()).thenReturn(IntStream.rangeClosed(1, 80)
+                .mapToObj(i -> alimento((long) i, "Manzana " + i))
+                .toList());
+        index.cargar();
+
+        assertEquals(AlimentoSugerenciasIndex.LIMITE_POR_DEFECTO, index.sugerir("manz", null).size());
+        assertEquals(3, index.sugerir("manz", 3).size());
+        assertEquals(AlimentoSugerenciasIndex.LIMITE_MAXIMO, index.sugerir("manz", 1000).size());
+    }
+
+    @Test
+    void testAlModificarAlimento_ActualizaSoloEseAlimento() {
+        when(alimentoRepository.findConIngredientesById(2L))
+                .thenReturn(Optional.of(alimento(2L, "Boniato asado", "boniato")));
+        when(alimentoRepository.findConIngredientesById(4L)).thenReturn(Optional.empty());
+
+        index.alModificarAlimento(new AlimentoModificadoEvent(2L));
+        index.alModificarAlimento(new AlimentoModificadoEvent(4L));
+
+        assertEquals(List.of(2L), ids(index.sugerir("boni", null)));
+        assertEquals(List.of(1L), ids(index.sugerir("patata", null)));
+        assertEquals(List.of(3L), ids(index.sugerir("pollo", null)));
+        verify(alimentoRepository, times(1)).findAllConIngredientes();
+    }
+
+    @Test
+    void testCargar_NoPierdeCambiosRecibidosDuranteLaCarga() {
+        // El alimento 5 se crea después de que la carga lea el catálogo, pero antes de sustituir el índice
+        when(alimentoRepository.findConIngredientesById(5L))
+                .thenReturn(Optional.of(alimento(5L, "Gazpacho andaluz", "tomate")));
+        when(alimentoRepository.findAllConIngredientes()).thenAnswer(invocacion -> {
+            index.alModificarAlimento(new AlimentoModificadoEvent(5L));
+            return List.of(alimento(1L, "Tortilla de patatas", "huevo", "patata"));
+        });
+
+        index.cargar();
+
+        assertEquals(List.of(5L), ids(index.sugerir("gazp", null)));
+        assertEquals(List.of(1L), ids(index.sugerir("tort", null)));
+    }
+
+    @Test
+    void testSugerir_MejoresConMuchosCandidatos() {
+        when(alimentoRepository.findAllConIngredientes()).thenReturn(IntStream.rangeClosed(1, 500)
+                .mapToObj(i -> i % 100 == 0
+                        ? alimento((long) i, "Arroz " + i)
+                        : alimento((long) i, "Paella " + i, "arroz"))
+                .toList());
+        index.cargar();
+
+        // Solo cinco alimentos tienen "arroz" en el nombre y salen delante de los que lo tienen como ingrediente
+        assertEquals(List.of(100L, 200L, 300L, 400L, 500L), ids(index.sugerir("arroz", 5)));
+    }
+
+    @Test
+    void testSugerir_EmpiezaPorElTerminoMasSelectivo() {
+        // "pan" tiene más alimentos que el tope de candidatos; "centeno" solo uno, que queda fuera del tope de "pan"
+        List<Alimento> catalogo = new ArrayList<>(IntStream.rangeClosed(1, AlimentoSugerenciasIndex.MAXIMO_CANDIDATOS + 500)
+                .mapToObj(i -> alimento((long) i, "Pan " + i))
+                .toList());
+        catalogo.add(alimento(9999L, "Pan de centeno"));
+        when(alimentoRepository.findAllConIngredientes()).thenReturn(catalogo);
+        index.cargar();
+
+        assertEquals(List.of(9999L), ids(index.sugerir("pan cent", null)));
+        assertTrue(index.sugerir("pan xyz", null).isEmpty());
+    }
+
+    @Test
+    void testAlModificarAlimento_AplicaLosCambiosEnOrden() throws Exception {
+        when(alimentoRepository.findAllConIngredientes()).thenReturn(List.of());
+        index.cargar();
+
+        // La primera lectura devuelve el nombre antiguo y tarda; la segunda ya ve el nombre nuevo
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        AtomicInteger lecturas = new AtomicInteger();
+        when(alimentoRepository.findConIngredientesById(1L)).thenAnswer(invocacion -> {
+            if (lecturas.incrementAndGet() == 1) {
+                leyendo.countDown();
+                continuar.await();
+                return Optional.of(alimento(1L, "Gazpacho"));
+            }
+            return Optional.of(alimento(1L, "Salmorejo"));
+        });
+
+        Thread primero = new Thread(() -> index.alModificarAlimento(new AlimentoModificadoEvent(1L)));
+        primero.start();
+        leyendo.await();
+        Thread segundo = new Thread(() -> index.alModificarAlimento(new AlimentoModificadoEvent(1L)));
+        segundo.start();
+        // El segundo cambio espera a que se aplique el primero en lugar de adelantarlo
+        while (segundo.getState() != Thread.State.BLOCKED && segundo.isAlive()) {
+            Thread.onSpinWait();
+        }
+        continuar.countDown();
+        primero.join();
+        segundo.join();
+
+        assertEquals(List.of(1L), ids(index.sugerir("salmo", null)));
+        assertTrue(index.sugerir("gazp", null).isEmpty());
+    }
+
+    private List<Long> ids(List<SugerenciaAlimentoDTO> sugerencias) {
+        return sugerencias.stream().map(SugerenciaAlimentoDTO::getId).toList();
+    }
+
+    private Alimento alimento(Long id, String nombre, String... ingredientes) {
+        return Alimento.builder().id(id).nombre(nombre).ingredientes(List.of(ingredientes)).build();
+    }
+}
@@ -11,14 +11,19 @@ import com.gestioneventos.cofira.exceptions.RecursoDuplicadoException;
 import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
 import com.gestioneventos.cofira.repositories.TokenRevocadoRepository;
 import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.EpocaTokenCache;
 import com.gestioneventos.cofira.security.JwtUtils;
+import com.gestioneventos.cofira.security.TokenRevocadoIndex;
+import com.gestioneventos.cofira.security.UserDetailsCache;
 import com.gestioneventos.cofira.security.UserDetailsImpl;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -28,6 +33,7 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collections;
@@ -54,6 +60,21 @@ public class AuthServiceTest {
     @Mock
     private JwtUtils jwtUtils;
 
+    @Mock
+    private TokenRevocadoIndex tokenRevocadoIndex;
+
+    @Mock
+    private EpocaTokenCache epocaTokenCache;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocadoPurgaService tokenRevocadoPurgaService;
+
+    @Mock
+    private UsuarioExistenciaIndex usuarioExistenciaIndex;
+
     @InjectMocks
     private AuthService authService;
 
@@ -109,22 +130,10 @@ public class AuthServiceTest {
 
         // Mock passwordEncoder
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedNewPassword");
-        // Mock usuarioRepository.existsByUsername and existsByEmail
-        when(usuarioRepository.existsByUsername(registerRequest.getUsername())).thenReturn(false);
-        when(usuarioRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
-        // Mock usuarioRepository.save
-        when(usuarioRepository.save(any(Usuario.class))).thenReturn(newUser);
-
-        // Mock login call after registration
-        LoginRequestDTO loginRequest = new LoginRequestDTO();
-        loginRequest.setUsername("newuser");
-        loginRequest.setPassword("newpassword");
-        
-        UserDetailsImpl userDetails = new UserDetailsImpl(2L, "newuser", "newuser@example.com", "encodedNewPassword", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
-        Authentication authentication = mock(Authentication.class);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        when(jwtUtils.generateJwtToken(authentication)).thenReturn("mockedJwtTokenForNewUser");
+        // Mock usuarioRepository.saveAndFlush
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenReturn(newUser);
+        // El token se emite directamente a partir del usuario guardado
+        when(jwtUtils.generateJwtToken(any(UserDetailsImpl.class))).thenReturn("mockedJwtTokenForNewUser");
 
         AuthResponseDTO response = authService.register(registerRequest);
 
@@ -135,12 +144,14 @@ public class AuthServiceTest {
         assertEquals("newuser@example.com", response.getEmail());
         assertEquals(Rol.USER, response.getRol());
 
-        verify(usuarioRepository).existsByUsername(registerRequest.getUsername());
-        verify(usuarioRepository).existsByEmail(registerRequest.getEmail());
-        verify(passwordEncoder).encode(registerRequest.getPassword());
-        verify(usuarioRepository).save(any(Usuario.class));
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils).generateJwtToken(authentication);
+        // Un único hash y un único INSERT, sin comprobaciones previas ni segunda autenticación
+        verify(passwordEncoder, times(1)).encode(registerRequest.getPassword());
+        verify(passwordEncoder, never()).matches(any(), anyString());
+        verify(usuarioRepository).saveAndFlush(any(Usuario.class));
+        verify(usuarioRepository, never()).existsByUsername(anyString());
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+        verify(authenticationManager, never()).authenticate(any());
+        verify(usuarioExistenciaIndex).registrar("newuser", "newuser@example.com");
     }
 
     @Test
@@ -150,16 +161,17 @@ public class AuthServiceTest {
         registerRequest.setEmail("newemail@example.com");
         registerRequest.setPassword("password");
 
-        when(usuarioRepository.existsByUsername(registerRequest.getUsername())).thenReturn(true);
+        when(usuarioRepository.saveAndFlush(any(Usuario.class)))
+                .thenThrow(violacionUnica("usuarios_username_key"));
 
         RecursoDuplicadoException exception = assertThrows(RecursoDuplicadoException.class, () -> {
             authService.register(registerRequest);
         });
 
         assertEquals("Error: El username ya está en uso!", exception.getMessage());
-        verify(usuarioRepository).existsByUsername(registerRequest.getUsername());
-        verify(usuarioRepository, never()).existsByEmail(anyString());
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+        verify(usuarioRepository).saveAndFlush(any(Usuario.class));
+        verify(jwtUtils, never()).generateJwtToken(any(UserDetailsImpl.class));
+        verify(usuarioExistenciaIndex, never()).registrar(anyString(), anyString());
     }
 
     @Test
@@ -169,17 +181,16 @@ public class AuthServiceTest {
         registerRequest.setEmail("existing@example.com");
         registerRequest.setPassword("password");
 
-        when(usuarioRepository.existsByUsername(registerRequest.getUsername())).thenReturn(false);
-        when(usuarioRepository.existsByEmail(registerRequest.getEmail())).thenReturn(true);
+        when(usuarioRepository.saveAndFlush(any(Usuario.class)))
+                .thenThrow(violacionUnica("usuarios_email_key"));
 
         RecursoDuplicadoException exception = assertThrows(RecursoDuplicadoException.class, () -> {
             authService.register(registerRequest);
         });
 
         assertEquals("Error: El email ya está en uso!", exception.getMessage());
-        verify(usuarioRepository).existsByUsername(registerRequest.getUsername());
-        verify(usuarioRepository).existsByEmail(registerRequest.getEmail());
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+        verify(usuarioRepository).saveAndFlush(any(Usuario.class));
+        verify(jwtUtils, never()).generateJwtToken(any(UserDetailsImpl.class));
     }
 
     @Test
@@ -252,11 +263,51 @@ public class AuthServiceTest {
         verify(jwtUtils).getJtiFromJwtToken(jwtToken);
         verify(jwtUtils).getExpirationFromJwtToken(jwtToken);
         verify(tokenRevocadoRepository).save(any(TokenRevocado.class));
+        verify(tokenRevocadoIndex).registrar(eq(jti), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testLogoutAll_BumpsTokenEpoch() {
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "currentuser", "current@example.com", "encodedPassword", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+
+        when(usuarioRepository.incrementarEpocaToken(1L)).thenReturn(1);
+        when(usuarioRepository.findEpocaTokenById(1L)).thenReturn(Optional.of(4L));
+
+        authService.logoutAll();
+
+        verify(usuarioRepository).incrementarEpocaToken(1L);
+        verify(epocaTokenCache).actualizar(1L, 4L);
+        verify(userDetailsCache).invalidate("currentuser");
+    }
+
+    @Test
+    void testLogoutAll_UserNotFound() {
+        UserDetailsImpl userDetails = new UserDetailsImpl(99L, "ghost", "ghost@example.com", "encodedPassword", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+
+        when(usuarioRepository.incrementarEpocaToken(99L)).thenReturn(0);
+
+        assertThrows(RecursoNoEncontradoException.class, () -> authService.logoutAll());
+        verify(epocaTokenCache, never()).actualizar(anyLong(), anyLong());
     }
 
     @Test
     void testCleanupExpiredTokens() {
         authService.cleanupExpiredTokens();
-        verify(tokenRevocadoRepository).deleteExpiredTokens(any(LocalDateTime.class));
+        verify(tokenRevocadoPurgaService).purgarExpirados();
+    }
+
+    private DataIntegrityViolationException violacionUnica(String constraintName) {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key"), constraintName));
     }
 }
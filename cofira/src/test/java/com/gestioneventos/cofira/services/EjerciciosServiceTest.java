@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import com.gestioneventos.cofira.dto.ejercicios.CrearEjerciciosDTO;
 import com.gestioneventos.cofira.dto.ejercicios.EjerciciosDTO;
@@ -74,6 +75,17 @@ public class EjerciciosServiceTest {
         verify(ejerciciosRepository, times(1)).findAll();
     }
 
+    @Test
+    void testListarEjercicios_PorNombre() {
+        when(ejerciciosRepository.buscarPorNombre("%flex%", "flex", Limit.of(100)))
+                .thenReturn(Collections.singletonList(ejercicio));
+
+        List<EjerciciosDTO> ejercicios = ejerciciosService.listarEjercicios("flex", 500);
+
+        assertEquals(1, ejercicios.size());
+        verify(ejerciciosRepository, never()).findAll();
+    }
+
     @Test
     void testObtenerEjercicio_Success() {
         when(ejerciciosRepository.findById(1L)).thenReturn(Optional.of(ejercicio));
@@ -0,0 +1,99 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.usuario.EstadisticasUsuariosDTO;
+import com.gestioneventos.cofira.dto.usuario.TramoHistogramaDTO;
+import com.gestioneventos.cofira.entities.Plan;
+import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.CategoriaImc;
+import com.gestioneventos.cofira.enums.Rol;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(EstadisticasUsuariosService.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class EstadisticasUsuariosServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EstadisticasUsuariosService estadisticasUsuariosService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testObtenerEstadisticas() {
+        crearUsuario("ana", Rol.USER, 25, 55.0, 1.70, true);      // IMC 19.0
+        crearUsuario("bea", Rol.USER, 29, 80.0, 1.75, false);     // IMC 26.1
+        crearUsuario("carl", Rol.ADMIN, 41, 95.0, 1.70, true);    // IMC 32.9
+        crearUsuario("dani", Rol.USER, null, 50.0, null, false);
+        entityManager.clear();
+        statistics.clear();
+
+        EstadisticasUsuariosDTO estadisticas = estadisticasUsuariosService.obtenerEstadisticas();
+
+        assertEquals(4, estadisticas.getTotalUsuarios());
+        assertEquals(2, estadisticas.getUsuariosConPlanActivo());
+        assertEquals(Map.of(Rol.USER, 3L, Rol.ADMIN, 1L), estadisticas.getUsuariosPorRol());
+        assertEquals(List.of(new TramoHistogramaDTO(20, 30, 2), new TramoHistogramaDTO(40, 50, 1)),
+                estadisticas.getEdad());
+        assertEquals(List.of(new TramoHistogramaDTO(50, 60, 2), new TramoHistogramaDTO(80, 90, 1),
+                new TramoHistogramaDTO(90, 100, 1)), estadisticas.getPeso());
+        assertEquals(List.of(new TramoHistogramaDTO(1.7, 1.8, 3)), estadisticas.getAltura());
+        assertEquals(Map.of(CategoriaImc.BAJO_PESO, 0L, CategoriaImc.NORMAL, 1L,
+                CategoriaImc.SOBREPESO, 1L, CategoriaImc.OBESIDAD, 1L), estadisticas.getImc());
+        // Solo consultas agregadas: ningún usuario cargado como entidad
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testObtenerEstadisticas_SinUsuarios() {
+        EstadisticasUsuariosDTO estadisticas = estadisticasUsuariosService.obtenerEstadisticas();
+
+        assertEquals(0, estadisticas.getTotalUsuarios());
+        assertEquals(0L, estadisticas.getUsuariosPorRol().get(Rol.ADMIN));
+        assertTrue(estadisticas.getEdad().isEmpty());
+        assertEquals(0L, estadisticas.getImc().get(CategoriaImc.NORMAL));
+    }
+
+    private void crearUsuario(String username, Rol rol, Integer edad, Double peso, Double altura, boolean planActivo) {
+        Usuario usuario = Usuario.builder()
+                .nombre(username)
+                .username(username)
+                .email(username + "@example.com")
+                .password("hash")
+                .rol(rol)
+                .edad(edad)
+                .peso(peso)
+                .altura(altura)
+                .build();
+        entityManager.persist(usuario);
+        entityManager.persist(Plan.builder().precio(9.99).subscripcionActiva(planActivo).usuario(usuario).build());
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,84 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.dto.rutinaalimentacion.CrearComidaDTO;
+import com.gestioneventos.cofira.dto.rutinaalimentacion.CrearDiaAlimentacionDTO;
+import com.gestioneventos.cofira.dto.rutinaalimentacion.CrearRutinaAlimentacionDTO;
+import com.gestioneventos.cofira.dto.rutinaalimentacion.RutinaAlimentacionDTO;
+import com.gestioneventos.cofira.enums.DiaSemana;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(RutinaAlimentacionService.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class RutinaAlimentacionServiceBatchInsertTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RutinaAlimentacionService rutinaAlimentacionService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testCrearRutina_InsertsAgrupadosPorTabla() {
+        CrearRutinaAlimentacionDTO dto = new CrearRutinaAlimentacionDTO();
+        dto.setFechaInicio(LocalDate.of(2025, 1, 6));
+        dto.setDiasAlimentacion(Arrays.stream(DiaSemana.values()).map(this::crearDia).toList());
+
+        RutinaAlimentacionDTO creada = rutinaAlimentacionService.crearRutina(dto);
+        entityManager.flush();
+
+        // Una sentencia por fila (rutina, 7 días, 35 comidas, 105 alimentos y la FK de cada día) suma más de 150;
+        // con ids por secuencia quedan los nextval de cada tabla y un lote JDBC por tabla
+        assertTrue(statistics.getPrepareStatementCount() <= 30,
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+        assertEquals(7, creada.getDiasAlimentacion().size());
+        assertNotNull(creada.getDiasAlimentacion().get(6).getCena().getId());
+        assertEquals(21L, ((Number) entityManager.getEntityManager()
+                .createNativeQuery("SELECT COUNT(*) FROM cena_alimentos").getSingleResult()).longValue());
+    }
+
+    private CrearDiaAlimentacionDTO crearDia(DiaSemana diaSemana) {
+        CrearDiaAlimentacionDTO dia = new CrearDiaAlimentacionDTO();
+        dia.setDiaSemana(diaSemana.name());
+        dia.setDesayuno(crearComida("avena", "leche", "fruta"));
+        dia.setAlmuerzo(crearComida("yogur", "nueces", "miel"));
+        dia.setComida(crearComida("arroz", "pollo", "ensalada"));
+        dia.setMerienda(crearComida("tostada", "aguacate", "huevo"));
+        dia.setCena(crearComida("pescado", "verduras", "patata"));
+        return dia;
+    }
+
+    private CrearComidaDTO crearComida(String... alimentos) {
+        CrearComidaDTO comida = new CrearComidaDTO();
+        comida.setAlimentos(List.of(alimentos));
+        return comida;
+    }
+}
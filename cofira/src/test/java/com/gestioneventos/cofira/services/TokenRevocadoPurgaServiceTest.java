@@ -0,0 +1,88 @@
+package com.gestioneventos.cofira.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocadoPurgaServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement lockStatement;
+
+    @Mock
+    private PreparedStatement unlockStatement;
+
+    @Mock
+    private PreparedStatement deleteStatement;
+
+    @Mock
+    private ResultSet lockResult;
+
+    @Mock
+    private ResultSet unlockResult;
+
+    private MeterRegistry meterRegistry;
+    private TokenRevocadoPurgaService purgaService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("SELECT pg_try_advisory_lock"))).thenReturn(lockStatement);
+        when(connection.prepareStatement(startsWith("SELECT pg_advisory_unlock"))).thenReturn(unlockStatement);
+        when(connection.prepareStatement(startsWith("DELETE FROM revoked_tokens"))).thenReturn(deleteStatement);
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        when(unlockStatement.executeQuery()).thenReturn(unlockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(unlockResult.next()).thenReturn(true);
+        when(unlockResult.getBoolean(1)).thenReturn(true);
+
+        meterRegistry = new SimpleMeterRegistry();
+        purgaService = new TokenRevocadoPurgaService(new JdbcTemplate(dataSource), meterRegistry, 100, 0);
+    }
+
+    @Test
+    void testPurgarExpirados_DeletesInBatchesUntilLastPartialBatch() throws Exception {
+        when(lockResult.getBoolean(1)).thenReturn(true);
+        when(deleteStatement.executeUpdate()).thenReturn(100, 100, 42);
+
+        long eliminadas = purgaService.purgarExpirados();
+
+        assertEquals(242, eliminadas);
+        verify(deleteStatement, times(3)).executeUpdate();
+        verify(deleteStatement, times(3)).setInt(2, 100);
+        verify(unlockStatement).executeQuery();
+        assertEquals(242.0, meterRegistry.get("cofira.revoked_tokens.purge.deleted").counter().count());
+        assertEquals(1, meterRegistry.get("cofira.revoked_tokens.purge.duration").timer().count());
+    }
+
+    @Test
+    void testPurgarExpirados_SkipsWhenLockHeldByAnotherInstance() throws Exception {
+        when(lockResult.getBoolean(1)).thenReturn(false);
+
+        long eliminadas = purgaService.purgarExpirados();
+
+        assertEquals(0, eliminadas);
+        verify(connection, never()).prepareStatement(startsWith("DELETE"));
+        verify(unlockStatement, never()).executeQuery();
+    }
+}
@@ -0,0 +1,128 @@
+package com.gestioneventos.cofira.services;
+
+import com.gestioneventos.cofira.repositories.IdentificadoresUsuario;
+import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UsuarioExistenciaIndexTest {
+
+    private UsuarioRepository usuarioRepository;
+    private UsuarioExistenciaIndex index;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.count()).thenReturn(1L);
+        when(usuarioRepository.findIdentificadoresDespuesDeId(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(usuario(1L, "alice", "alice@example.com")));
+        index = new UsuarioExistenciaIndex(usuarioRepository, 1000, 0.001);
+    }
+
+    @Test
+    void testAntesDeCargar_ConsultaLaBaseDeDatos() {
+        when(usuarioRepository.existsByUsername("bob")).thenReturn(false);
+
+        assertFalse(index.existeUsername("bob"));
+        verify(usuarioRepository).existsByUsername("bob");
+    }
+
+    @Test
+    void testNegativo_SeRespondeSinBaseDeDatos() {
+        index.cargar();
+
+        assertFalse(index.existeUsername("bob"));
+        assertFalse(index.existeEmail("bob@example.com"));
+        verify(usuarioRepository, never()).existsByUsername(anyString());
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void testPosiblePositivo_LoConfirmaLaBaseDeDatos() {
+        index.cargar();
+        when(usuarioRepository.existsByUsername("alice")).thenReturn(true);
+        when(usuarioRepository.existsByEmail("alice@example.com")).thenReturn(false);
+
+        assertTrue(index.existeUsername("alice"));
+        // Un valor borrado sigue en el filtro, pero la base de datos tiene la última palabra
+        assertFalse(index.existeEmail("alice@example.com"));
+    }
+
+    @Test
+    void testUsernameYEmail_NoSeMezclan() {
+        index.cargar();
+
+        assertFalse(index.existeEmail("alice"));
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void testRegistrar_AnadeAlFiltro() {
+        index.cargar();
+        index.registrar("bob", "bob@example.com");
+        when(usuarioRepository.existsByUsername("bob")).thenReturn(true);
+
+        assertTrue(index.existeUsername("bob"));
+        verify(usuarioRepository).existsByUsername("bob");
+    }
+
+    @Test
+    void testReconstruirPeriodicamente_IncluyeAltasExternasYQuitaBorrados() {
+        index.cargar();
+        // "carol" se dio de alta en otra instancia y "alice" se borró: ninguno pasó por este índice
+        when(usuarioRepository.findIdentificadoresDespuesDeId(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(usuario(2L, "carol", "carol@example.com")));
+        when(usuarioRepository.existsByUsername("carol")).thenReturn(true);
+
+        index.reconstruirPeriodicamente();
+
+        assertTrue(index.existeUsername("carol"));
+        assertFalse(index.existeUsername("alice"));
+        verify(usuarioRepository, never()).existsByUsername("alice");
+    }
+
+    @Test
+    void testReconstruir_RecorrePorPaginas() {
+        List<IdentificadoresUsuario> primera = IntStream.rangeClosed(1, UsuarioExistenciaIndex.TAMANO_PAGINA)
+                .mapToObj(i -> usuario((long) i, "usuario" + i, "usuario" + i + "@example.com"))
+                .toList();
+        when(usuarioRepository.findIdentificadoresDespuesDeId(0L, Limit.of(UsuarioExistenciaIndex.TAMANO_PAGINA)))
+                .thenReturn(primera);
+        when(usuarioRepository.findIdentificadoresDespuesDeId(UsuarioExistenciaIndex.TAMANO_PAGINA,
+                Limit.of(UsuarioExistenciaIndex.TAMANO_PAGINA)))
+                .thenReturn(List.of(usuario(5000L, "ultimo", "ultimo@example.com")));
+        when(usuarioRepository.existsByUsername(anyString())).thenReturn(true);
+
+        index.cargar();
+
+        assertTrue(index.existeUsername("usuario1"));
+        assertTrue(index.existeUsername("ultimo"));
+        verify(usuarioRepository, times(2)).findIdentificadoresDespuesDeId(anyLong(), any(Limit.class));
+    }
+
+    private IdentificadoresUsuario usuario(Long id, String username, String email) {
+        return new IdentificadoresUsuario() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gestioneventos.cofira.entities.*;
+import com.gestioneventos.cofira.enums.DiaSemana;
+import com.gestioneventos.cofira.security.EpocaTokenCache;
+import com.gestioneventos.cofira.security.UserDetailsCache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({UsuarioExportacionService.class, UsuarioService.class, RutinaAlimentacionService.class,
+        RutinaEjercicioService.class, UsuarioExportacionServiceTest.Config.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "cofira.usuarios.export.chunk-size=4"
+})
+public class UsuarioExportacionServiceTest {
+
+    private static final int USUARIOS = 10;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UsuarioExportacionService exportacionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+
+    @MockBean
+    private EpocaTokenCache epocaTokenCache;
+
+    @MockBean
+    private UsuarioExistenciaIndex usuarioExistenciaIndex;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testExportar_UnUsuarioPorLineaYConsultasPorBloque() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            ids.add(crearUsuario("usuario" + i));
+        }
+        entityManager.clear();
+        statistics.clear();
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long exportados = exportacionService.exportar(salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(USUARIOS, exportados);
+        assertEquals(USUARIOS, lineas.length);
+        for (int i = 0; i < USUARIOS; i++) {
+            JsonNode usuario = objectMapper.readTree(lineas[i]);
+            assertEquals(ids.get(i), usuario.get("id").asLong());
+            assertFalse(usuario.has("password"));
+            assertEquals("gluten", usuario.get("alergias").get(0).asText());
+            assertEquals("avena", usuario.at("/rutinaAlimentacion/diasAlimentacion/0/desayuno/alimentos/0").asText());
+        }
+        // Las colecciones se cargan con un IN por bloque de usuarios, no con una consulta por usuario
+        int bloques = (USUARIOS + 3) / 4;
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + bloques * 5L,
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+        // Tras cada bloque se vacía el contexto de persistencia
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class)
+                .getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testExportar_SinUsuarios() {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        assertEquals(0, exportacionService.exportar(salida));
+        assertEquals(0, salida.size());
+    }
+
+    private Long crearUsuario(String username) {
+        DiaAlimentacion dia = DiaAlimentacion.builder()
+                .diaSemana(DiaSemana.LUNES)
+                .desayuno(Desayuno.builder().alimentos(new ArrayList<>(List.of("avena"))).build())
+                .cena(Cena.builder().alimentos(new ArrayList<>(List.of("pescado"))).build())
+                .build();
+        Usuario usuario = Usuario.builder()
+                .nombre(username)
+                .username(username)
+                .email(username + "@example.com")
+                .password("hash")
+                .alimentosFavoritos(new ArrayList<>(List.of("pasta")))
+                .alergias(new ArrayList<>(List.of("gluten")))
+                .rutinaAlimentacion(RutinaAlimentacion.builder().fechaInicio(LocalDate.now())
+                        .diasAlimentacion(new ArrayList<>(List.of(dia))).build())
+                .build();
+        entityManager.persist(usuario);
+        entityManager.persist(Plan.builder().precio(9.99).subscripcionActiva(true).usuario(usuario).build());
+        entityManager.flush();
+        return usuario.getId();
+    }
+}
@@ -0,0 +1,157 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gestioneventos.cofira.dto.usuario.ImportacionUsuariosDTO;
+import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.FormatoImportacion;
+import com.gestioneventos.cofira.enums.Rol;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+// H2 en modo PostgreSQL para poder ejecutar el INSERT ... ON CONFLICT DO NOTHING real
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UsuarioImportacionService.class, UsuarioImportacionServiceTest.Config.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacion;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cofira.usuarios.import.batch-size=3",
+        "cofira.usuarios.import.hashing-parallelism=2",
+        "cofira.usuarios.import.max-errors=2"
+})
+public class UsuarioImportacionServiceTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoderDirecto() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        Validator validator() {
+            return Validation.buildDefaultValidatorFactory().getValidator();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private UsuarioImportacionService importacionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private UsuarioExistenciaIndex usuarioExistenciaIndex;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(Usuario.builder()
+                .nombre("Existente").username("existente").email("existente@example.com").password("hash").build());
+        entityManager.flush();
+    }
+
+    @Test
+    void testImportarCsv_InsertaPorLotesYReportaErroresPorFila() throws IOException {
+        String csv = """
+                nombre,username,email,password,rol,edad,peso,altura
+                Ana,ana,ana@example.com,secreto1,USER,30,60.5,165
+                "López, Bea",bea,bea@example.com,secreto2,admin,,,
+
+                Carl,existente,carl@example.com,secreto3,,,,
+                Dani,dani,no-es-un-email,secreto4,,,,
+                Eva,eva,eva@example.com,secreto5,,treinta,,
+                Fran,fran,fran@example.com,secreto6,,,,
+                Gema,gema,ana@example.com,secreto7,,,,
+                """;
+
+        ImportacionUsuariosDTO resultado = importacionService.importar(flujo(csv), FormatoImportacion.CSV);
+
+        assertEquals(7, resultado.getFilasProcesadas());
+        assertEquals(3, resultado.getUsuariosCreados());
+        assertEquals(4, resultado.getFilasRechazadas());
+        // Solo se detallan los dos primeros errores
+        assertEquals(2, resultado.getErrores().size());
+        assertTrue(resultado.isErroresTruncados());
+        assertEquals(5, resultado.getErrores().get(0).getFila());
+        assertEquals("El username existente ya está en uso", resultado.getErrores().get(0).getMensaje());
+        assertEquals(6, resultado.getErrores().get(1).getFila());
+
+        assertEquals("López, Bea", jdbcTemplate.queryForObject(
+                "SELECT nombre FROM usuarios WHERE username = 'bea'", String.class));
+        assertEquals(Rol.ADMIN.name(), jdbcTemplate.queryForObject(
+                "SELECT rol FROM usuarios WHERE username = 'bea'", String.class));
+        assertTrue(passwordEncoder.matches("secreto1", jdbcTemplate.queryForObject(
+                "SELECT password FROM usuarios WHERE username = 'ana'", String.class)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usuarios WHERE username = 'gema'", Integer.class));
+        verify(usuarioExistenciaIndex).registrar("fran", "fran@example.com");
+    }
+
+    @Test
+    void testImportarNdjson() throws IOException {
+        String ndjson = """
+                {"nombre":"Hugo","username":"hugo","email":"hugo@example.com","password":"secreto","edad":40}
+                {"nombre":"Ines","username":"ines","email":"ines@example.com"}
+                {no es json
+                """;
+
+        ImportacionUsuariosDTO resultado = importacionService.importar(flujo(ndjson), FormatoImportacion.NDJSON);
+
+        assertEquals(3, resultado.getFilasProcesadas());
+        assertEquals(1, resultado.getUsuariosCreados());
+        assertEquals(2, resultado.getErrores().get(0).getFila());
+        assertEquals("La contraseña no puede estar vacía", resultado.getErrores().get(0).getMensaje());
+        assertEquals(3, resultado.getErrores().get(1).getFila());
+        assertEquals(40, jdbcTemplate.queryForObject("SELECT edad FROM usuarios WHERE username = 'hugo'", Integer.class));
+    }
+
+    @Test
+    void testImportarCsv_CabeceraNoValida() {
+        assertThrows(IllegalArgumentException.class, () ->
+                importacionService.importar(flujo("nombre,username,email\nAna,ana,ana@example.com\n"), FormatoImportacion.CSV));
+        assertThrows(IllegalArgumentException.class, () ->
+                importacionService.importar(flujo("nombre,username,email,password,dni\n"), FormatoImportacion.CSV));
+    }
+
+    private InputStream flujo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
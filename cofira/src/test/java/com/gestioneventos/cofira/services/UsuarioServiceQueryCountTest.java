@@ -0,0 +1,336 @@
+package com.gestioneventos.cofira.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gestioneventos.cofira.dto.usuario.UsuarioDetalleDTO;
+import com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO;
+import com.gestioneventos.cofira.entities.*;
+import com.gestioneventos.cofira.dto.usuario.UsuarioPaginaCursorDTO;
+import com.gestioneventos.cofira.enums.DiaSemana;
+import com.gestioneventos.cofira.enums.InclusionUsuario;
+import com.gestioneventos.cofira.enums.OrdenListadoUsuarios;
+import com.gestioneventos.cofira.security.EpocaTokenCache;
+import com.gestioneventos.cofira.security.UserDetailsCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Se ejecuta sobre H2 con el esquema generado por Hibernate: las migraciones de Flyway son específicas de PostgreSQL
+@DataJpaTest
+@Import({UsuarioService.class, RutinaAlimentacionService.class, RutinaEjercicioService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class UsuarioServiceQueryCountTest {
+
+    // Perfil (1), favoritos (1), alergias (1), rutina de alimentación con días y comidas (1), alimentos de cada
+    // tipo de comida (5), rutina de ejercicio (1), días de ejercicio (1) y ejercicios (1)
+    private static final long CONSULTAS_DETALLE = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+
+    @MockBean
+    private EpocaTokenCache epocaTokenCache;
+
+    @MockBean
+    private UsuarioExistenciaIndex usuarioExistenciaIndex;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testObtenerUsuario_NumeroFijoDeConsultas() throws Exception {
+        Long id = crearUsuario("alice", 7, 5);
+
+        UsuarioDetalleDTO dto = obtenerYSerializar(id);
+
+        assertEquals(CONSULTAS_DETALLE, statistics.getPrepareStatementCount());
+        assertEquals(7, dto.getRutinaAlimentacion().getDiasAlimentacion().size());
+        assertEquals(List.of("avena-LUNES"), dto.getRutinaAlimentacion().getDiasAlimentacion().get(0).getDesayuno().getAlimentos());
+        assertEquals(5, dto.getRutinaEjercicio().getDiasEjercicio().size());
+        assertEquals(2, dto.getRutinaEjercicio().getDiasEjercicio().get(0).getEjercicios().size());
+        assertEquals(List.of("pasta"), dto.getAlimentosFavoritos());
+    }
+
+    @Test
+    void testObtenerUsuario_ConsultasNoCrecenConLosDias() throws Exception {
+        Long pocosDias = crearUsuario("bob", 1, 1);
+        Long muchosDias = crearUsuario("carol", 7, 7);
+
+        obtenerYSerializar(pocosDias);
+        long consultasPocosDias = statistics.getPrepareStatementCount();
+        obtenerYSerializar(muchosDias);
+        long consultasMuchosDias = statistics.getPrepareStatementCount();
+
+        assertEquals(consultasPocosDias, consultasMuchosDias);
+    }
+
+    @Test
+    void testObtenerUsuario_SoloPerfil_UnaConsulta() throws Exception {
+        Long id = crearUsuario("dave", 7, 5);
+        entityManager.clear();
+        statistics.clear();
+
+        UsuarioDetalleDTO dto = usuarioService.obtenerUsuario(id, EnumSet.noneOf(InclusionUsuario.class));
+        String json = objectMapper.writeValueAsString(dto);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("dave", dto.getUsername());
+        assertFalse(json.contains("rutinaAlimentacion"));
+        assertFalse(json.contains("alergias"));
+    }
+
+    @Test
+    void testObtenerUsuario_PerfilConAlergias() {
+        Long id = crearUsuario("erin", 1, 1);
+        entityManager.clear();
+        statistics.clear();
+
+        UsuarioDetalleDTO dto = usuarioService.obtenerUsuario(id, EnumSet.of(InclusionUsuario.ALERGIAS));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of("gluten"), dto.getAlergias());
+        assertNull(dto.getAlimentosFavoritos());
+    }
+
+    @Test
+    void testObtenerUsuario_SoloRutinaEjercicio() {
+        Long id = crearUsuario("frank", 7, 5);
+        entityManager.clear();
+        statistics.clear();
+
+        UsuarioDetalleDTO dto = usuarioService.obtenerUsuario(id, EnumSet.of(InclusionUsuario.RUTINA_EJERCICIO));
+
+        // Perfil (1), rutina de ejercicio (1), días de ejercicio (1) y ejercicios (1)
+        assertEquals(4, statistics.getPrepareStatementCount());
+        // Ni el usuario, ni sus objetivos o plan, ni nada de la rutina de alimentación
+        assertEquals(0, entidadesCargadas(Usuario.class, Objetivos.class, Plan.class, RutinaAlimentacion.class,
+                DiaAlimentacion.class, Desayuno.class, Almuerzo.class, Comida.class, Merienda.class, Cena.class));
+        assertEquals(1, entidadesCargadas(RutinaEjercicio.class));
+        assertEquals(5, entidadesCargadas(DiaEjercicio.class));
+        assertNull(dto.getRutinaAlimentacion());
+        assertNull(dto.getAlergias());
+        assertEquals(5, dto.getRutinaEjercicio().getDiasEjercicio().size());
+    }
+
+    @Test
+    void testObtenerUsuario_SoloRutinaAlimentacion() {
+        Long id = crearUsuario("gina", 7, 5);
+        entityManager.clear();
+        statistics.clear();
+
+        UsuarioDetalleDTO dto = usuarioService.obtenerUsuario(id, EnumSet.of(InclusionUsuario.RUTINA_ALIMENTACION));
+
+        // Perfil (1), rutina con días y comidas (1) y los alimentos de cada tipo de comida (5)
+        assertEquals(7, statistics.getPrepareStatementCount());
+        assertEquals(0, entidadesCargadas(Usuario.class, Objetivos.class, Plan.class, RutinaEjercicio.class,
+                DiaEjercicio.class, Ejercicios.class));
+        assertEquals(7, entidadesCargadas(DiaAlimentacion.class));
+        assertEquals(7, entidadesCargadas(Cena.class));
+        assertNull(dto.getRutinaEjercicio());
+        assertEquals(7, dto.getRutinaAlimentacion().getDiasAlimentacion().size());
+    }
+
+    @Test
+    void testListarUsuarios_UnaConsultaMasElCount() {
+        for (int i = 0; i < 120; i++) {
+            crearUsuarioSimple("usuario" + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<UsuarioListadoDTO> pagina = usuarioService.listarUsuarios(null, PageRequest.of(0, 100, Sort.by("nombre")));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(100, pagina.getNumberOfElements());
+        assertEquals(120, pagina.getTotalElements());
+        assertEquals("usuario0@example.com", pagina.getContent().get(0).getEmail());
+    }
+
+    @Test
+    void testListarUsuarios_FiltroPorNombre() {
+        crearUsuarioSimple("Alicia");
+        crearUsuarioSimple("Bob");
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<UsuarioListadoDTO> pagina = usuarioService.listarUsuarios("ALI", PageRequest.of(0, 10));
+
+        assertEquals(1, pagina.getTotalElements());
+        assertEquals("Alicia", pagina.getContent().get(0).getNombre());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testListarUsuariosPorCursor_RecorreTodoSinRepetirNiSaltar() {
+        // Nombres repetidos para comprobar el desempate por id
+        for (int i = 0; i < 25; i++) {
+            crearUsuarioSimple("nombre" + (i % 4), "usuario" + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        for (OrdenListadoUsuarios orden : OrdenListadoUsuarios.values()) {
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+            do {
+                statistics.clear();
+                UsuarioPaginaCursorDTO pagina = usuarioService.listarUsuariosPorCursor(null, orden, cursor, 10, false);
+                // Una sola consulta por página, sin COUNT
+                assertEquals(1, statistics.getPrepareStatementCount());
+                pagina.getContenido().forEach(u -> ids.add(u.getId()));
+                cursor = pagina.getSiguienteCursor();
+            } while (cursor != null);
+
+            assertEquals(25, ids.size());
+            assertEquals(25, ids.stream().distinct().count());
+        }
+    }
+
+    @Test
+    void testListarUsuariosConPlanActivo_PaginasPorCursorSinCargarEntidades() {
+        for (int i = 0; i < 5; i++) {
+            crearUsuarioSimple("nombre" + i, "usuario" + i);
+        }
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Plan p SET p.subscripcionActiva = false "
+                        + "WHERE p.usuario.username IN ('usuario1', 'usuario3')")
+                .executeUpdate();
+        entityManager.clear();
+        statistics.clear();
+
+        UsuarioPaginaCursorDTO primera = usuarioService.listarUsuariosConPlanActivo(null, 2);
+        UsuarioPaginaCursorDTO segunda = usuarioService.listarUsuariosConPlanActivo(primera.getSiguienteCursor(), 2);
+
+        assertEquals(List.of("nombre0", "nombre2"),
+                primera.getContenido().stream().map(UsuarioListadoDTO::getNombre).toList());
+        assertNotNull(primera.getSiguienteCursor());
+        assertEquals(List.of("nombre4"),
+                segunda.getContenido().stream().map(UsuarioListadoDTO::getNombre).toList());
+        assertNull(segunda.getSiguienteCursor());
+        // Una consulta por página y solo proyecciones
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    // Lee el detalle con la sesión vacía y lo serializa como haría el controlador
+    private UsuarioDetalleDTO obtenerYSerializar(Long id) throws Exception {
+        entityManager.clear();
+        statistics.clear();
+        UsuarioDetalleDTO dto = usuarioService.obtenerUsuario(id);
+        objectMapper.writeValueAsString(dto);
+        return dto;
+    }
+
+    private Long crearUsuario(String username, int diasAlimentacion, int diasEjercicio) {
+        DiaSemana[] semana = DiaSemana.values();
+
+        List<DiaAlimentacion> dias = new ArrayList<>();
+        for (int i = 0; i < diasAlimentacion; i++) {
+            String dia = semana[i].name();
+            dias.add(DiaAlimentacion.builder()
+                    .diaSemana(semana[i])
+                    .desayuno(Desayuno.builder().alimentos(new ArrayList<>(List.of("avena-" + dia))).build())
+                    .almuerzo(Almuerzo.builder().alimentos(new ArrayList<>(List.of("fruta-" + dia))).build())
+                    .comida(Comida.builder().alimentos(new ArrayList<>(List.of("arroz-" + dia, "pollo-" + dia))).build())
+                    .merienda(Merienda.builder().alimentos(new ArrayList<>(List.of("yogur-" + dia))).build())
+                    .cena(Cena.builder().alimentos(new ArrayList<>(List.of("pescado-" + dia))).build())
+                    .build());
+        }
+
+        List<DiaEjercicio> diasEj = new ArrayList<>();
+        for (int i = 0; i < diasEjercicio; i++) {
+            diasEj.add(DiaEjercicio.builder()
+                    .diaSemana(semana[i])
+                    .ejercicios(new ArrayList<>(Arrays.asList(ejercicio("Sentadilla " + username + i), ejercicio("Press " + username + i))))
+                    .build());
+        }
+
+        Usuario usuario = Usuario.builder()
+                .nombre(username)
+                .username(username)
+                .email(username + "@example.com")
+                .password("hash")
+                .alimentosFavoritos(new ArrayList<>(List.of("pasta")))
+                .alergias(new ArrayList<>(List.of("gluten")))
+                .rutinaAlimentacion(RutinaAlimentacion.builder().fechaInicio(LocalDate.now()).diasAlimentacion(dias).build())
+                .rutinaEjercicio(RutinaEjercicio.builder().fechaInicio(LocalDate.now()).diasEjercicio(diasEj).build())
+                .build();
+        entityManager.persist(usuario);
+        entityManager.persist(Plan.builder().precio(9.99).subscripcionActiva(true).usuario(usuario).build());
+        entityManager.persist(Objetivos.builder().listaObjetivos(new ArrayList<>(List.of("fuerza"))).usuario(usuario).build());
+        entityManager.flush();
+        return usuario.getId();
+    }
+
+    private void crearUsuarioSimple(String nombre) {
+        crearUsuarioSimple(nombre, nombre);
+    }
+
+    private void crearUsuarioSimple(String nombre, String username) {
+        Usuario usuario = Usuario.builder()
+                .nombre(nombre)
+                .username(username)
+                .email(username + "@example.com")
+                .password("hash")
+                .build();
+        entityManager.persist(usuario);
+        // Los usuarios con plan y objetivos son los que disparaban dos SELECT extra por fila
+        entityManager.persist(Plan.builder().precio(9.99).subscripcionActiva(true).usuario(usuario).build());
+        entityManager.persist(Objetivos.builder().usuario(usuario).build());
+    }
+
+    private Ejercicios ejercicio(String nombre) {
+        Ejercicios ejercicio = Ejercicios.builder().nombreEjercicio(nombre).series(3).repeticiones(10).build();
+        entityManager.persist(ejercicio);
+        return ejercicio;
+    }
+
+    private long entidadesCargadas(Class<?>... entidades) {
+        long total = 0;
+        for (Class<?> entidad : entidades) {
+            total += statistics.getEntityStatistics(entidad.getName()).getLoadCount();
+        }
+        return total;
+    }
+}
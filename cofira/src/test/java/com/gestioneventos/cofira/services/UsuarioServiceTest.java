@@ -1,23 +1,31 @@
 package com.gestioneventos.cofira.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gestioneventos.cofira.dto.rutinaalimentacion.RutinaAlimentacionDTO;
 import com.gestioneventos.cofira.dto.rutinaejercicio.RutinaEjercicioDTO;
 import com.gestioneventos.cofira.dto.usuario.CrearUsuarioDTO;
 import com.gestioneventos.cofira.dto.usuario.ModificarUsuarioDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioDetalleDTO;
 import com.gestioneventos.cofira.dto.usuario.UsuarioListadoDTO;
+import com.gestioneventos.cofira.dto.usuario.UsuarioPaginaCursorDTO;
 import com.gestioneventos.cofira.entities.RutinaAlimentacion;
 import com.gestioneventos.cofira.entities.RutinaEjercicio;
 import com.gestioneventos.cofira.entities.Usuario;
+import com.gestioneventos.cofira.enums.InclusionUsuario;
+import com.gestioneventos.cofira.enums.OrdenListadoUsuarios;
 import com.gestioneventos.cofira.enums.Rol;
 import com.gestioneventos.cofira.exceptions.RecursoDuplicadoException;
 import com.gestioneventos.cofira.exceptions.RecursoNoEncontradoException;
+import com.gestioneventos.cofira.repositories.PerfilUsuario;
 import com.gestioneventos.cofira.repositories.UsuarioRepository;
+import com.gestioneventos.cofira.security.EpocaTokenCache;
+import com.gestioneventos.cofira.security.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -25,12 +33,15 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class UsuarioServiceTest {
@@ -44,6 +55,15 @@ public class UsuarioServiceTest {
     @Mock
     private RutinaEjercicioService rutinaEjercicioService;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private EpocaTokenCache epocaTokenCache;
+
+    @Mock
+    private UsuarioExistenciaIndex usuarioExistenciaIndex;
+
     @InjectMocks
     private UsuarioService usuarioService;
 
@@ -101,8 +121,10 @@ public class UsuarioServiceTest {
 
     @Test
     void testListarUsuarios_NoFilter() {
-        Page<Usuario> usuariosPage = new PageImpl<>(Arrays.asList(usuario1, usuario2));
-        when(usuarioRepository.findAll(pageable)).thenReturn(usuariosPage);
+        Page<UsuarioListadoDTO> usuariosPage = new PageImpl<>(Arrays.asList(
+                new UsuarioListadoDTO(1L, "Alice Smith", "alice@example.com"),
+                new UsuarioListadoDTO(2L, "Bob Johnson", "bob@example.com")));
+        when(usuarioRepository.findListado(pageable)).thenReturn(usuariosPage);
 
         Page<UsuarioListadoDTO> result = usuarioService.listarUsuarios(null, pageable);
 
@@ -110,39 +132,100 @@ public class UsuarioServiceTest {
         assertEquals(2, result.getTotalElements());
         assertEquals("Alice Smith", result.getContent().get(0).getNombre());
         assertEquals("Bob Johnson", result.getContent().get(1).getNombre());
-        verify(usuarioRepository, times(1)).findAll(pageable);
-        verify(usuarioRepository, never()).findByNombreContainingIgnoreCase(anyString(), any(Pageable.class));
+        verify(usuarioRepository, times(1)).findListado(pageable);
+        verify(usuarioRepository, never()).findListadoByNombre(anyString(), any(Pageable.class));
+        verify(usuarioRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void testListarUsuarios_WithNameFilter() {
-        Page<Usuario> usuariosPage = new PageImpl<>(Collections.singletonList(usuario1));
-        when(usuarioRepository.findByNombreContainingIgnoreCase("alice", pageable)).thenReturn(usuariosPage);
+        Page<UsuarioListadoDTO> usuariosPage = new PageImpl<>(Collections.singletonList(
+                new UsuarioListadoDTO(1L, "Alice Smith", "alice@example.com")));
+        when(usuarioRepository.findListadoByNombre("alice", pageable)).thenReturn(usuariosPage);
 
         Page<UsuarioListadoDTO> result = usuarioService.listarUsuarios("alice", pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals("Alice Smith", result.getContent().get(0).getNombre());
-        verify(usuarioRepository, times(1)).findByNombreContainingIgnoreCase("alice", pageable);
-        verify(usuarioRepository, never()).findAll(any(Pageable.class));
+        verify(usuarioRepository, times(1)).findListadoByNombre("alice", pageable);
+        verify(usuarioRepository, never()).findListado(any(Pageable.class));
     }
 
     @Test
     void testListarUsuarios_Empty() {
-        Page<Usuario> emptyPage = new PageImpl<>(Collections.emptyList());
-        when(usuarioRepository.findAll(pageable)).thenReturn(emptyPage);
+        Page<UsuarioListadoDTO> emptyPage = new PageImpl<>(Collections.emptyList());
+        when(usuarioRepository.findListado(pageable)).thenReturn(emptyPage);
 
         Page<UsuarioListadoDTO> result = usuarioService.listarUsuarios(null, pageable);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(usuarioRepository, times(1)).findAll(pageable);
+        verify(usuarioRepository, times(1)).findListado(pageable);
+    }
+
+    @Test
+    void testListarUsuariosPorCursor_PrimeraPaginaConSiguiente() {
+        when(usuarioRepository.findListadoDespuesDeId(0L, "", Limit.of(3))).thenReturn(Arrays.asList(
+                new UsuarioListadoDTO(1L, "Alice Smith", "alice@example.com"),
+                new UsuarioListadoDTO(2L, "Bob Johnson", "bob@example.com"),
+                new UsuarioListadoDTO(5L, "Carol White", "carol@example.com")));
+        when(usuarioRepository.findListadoDespuesDeId(eq(2L), eq(""), any(Limit.class))).thenReturn(Collections.singletonList(
+                new UsuarioListadoDTO(5L, "Carol White", "carol@example.com")));
+
+        UsuarioPaginaCursorDTO primera = usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.ID, null, 2, false);
+
+        assertEquals(2, primera.getContenido().size());
+        assertNotNull(primera.getSiguienteCursor());
+        assertNull(primera.getTotalEstimado());
+
+        UsuarioPaginaCursorDTO segunda = usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.ID,
+                primera.getSiguienteCursor(), 2, false);
+
+        assertEquals(1, segunda.getContenido().size());
+        assertNull(segunda.getSiguienteCursor());
+        verify(usuarioRepository, never()).findListado(any(Pageable.class));
+    }
+
+    @Test
+    void testListarUsuariosPorCursor_OrdenPorNombreConservaLaPosicion() {
+        when(usuarioRepository.findListadoDespuesDeNombre("", 0L, "", Limit.of(2))).thenReturn(Arrays.asList(
+                new UsuarioListadoDTO(7L, "Ana: López", "ana@example.com"),
+                new UsuarioListadoDTO(3L, "Bea", "bea@example.com")));
+
+        UsuarioPaginaCursorDTO primera = usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.NOMBRE, null, 1, false);
+        usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.NOMBRE, primera.getSiguienteCursor(), 1, false);
+
+        verify(usuarioRepository).findListadoDespuesDeNombre("Ana: López", 7L, "", Limit.of(2));
+    }
+
+    @Test
+    void testListarUsuariosPorCursor_CursorNoValido() {
+        assertThrows(IllegalArgumentException.class, () ->
+                usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.ID, "no-es-un-cursor", 10, false));
+        // "SUQ6NDI" es "ID:42": no vale para el orden por nombre
+        assertThrows(IllegalArgumentException.class, () ->
+                usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.NOMBRE, "SUQ6NDI", 10, false));
+        verify(usuarioRepository, never()).findListadoDespuesDeNombre(anyString(), anyLong(), anyString(), any(Limit.class));
+    }
+
+    @Test
+    void testListarUsuariosPorCursor_TotalEstimadoSoloSinFiltro() {
+        when(usuarioRepository.findListadoDespuesDeId(anyLong(), anyString(), any(Limit.class))).thenReturn(Collections.emptyList());
+        when(usuarioRepository.estimarTotalUsuarios()).thenReturn(125000L);
+
+        assertEquals(125000L, usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.ID, null, 20, true).getTotalEstimado());
+        assertNull(usuarioService.listarUsuariosPorCursor("ali", OrdenListadoUsuarios.ID, null, 20, true).getTotalEstimado());
+        verify(usuarioRepository, times(1)).estimarTotalUsuarios();
+
+        // Una tabla sin analizar devuelve -1: no es un total utilizable
+        when(usuarioRepository.estimarTotalUsuarios()).thenReturn(-1L);
+        assertNull(usuarioService.listarUsuariosPorCursor(null, OrdenListadoUsuarios.ID, null, 20, true).getTotalEstimado());
     }
 
     @Test
     void testObtenerUsuario_Success() {
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario1));
+        stubDetalle(usuario1);
 
         UsuarioDetalleDTO result = usuarioService.obtenerUsuario(1L);
 
@@ -151,19 +234,79 @@ public class UsuarioServiceTest {
         assertEquals("Alice Smith", result.getNombre());
         assertNotNull(result.getRutinaAlimentacion());
         assertNotNull(result.getRutinaEjercicio());
-        verify(usuarioRepository, times(1)).findById(1L);
+        verify(usuarioRepository, times(1)).findRutinaAlimentacionById(1L);
+        verify(usuarioRepository, times(1)).findRutinaEjercicioById(1L);
+        verify(usuarioRepository, never()).findById(any());
+    }
+
+    @Test
+    void testObtenerUsuario_SoloPerfil_NoCargaLaEntidad() {
+        PerfilUsuario perfil = mock(PerfilUsuario.class);
+        when(perfil.getId()).thenReturn(1L);
+        when(perfil.getUsername()).thenReturn("alice");
+        when(usuarioRepository.findPerfilById(1L)).thenReturn(Optional.of(perfil));
+        when(usuarioRepository.findAlimentosFavoritosById(1L)).thenReturn(List.of("Pasta"));
+
+        UsuarioDetalleDTO result = usuarioService.obtenerUsuario(1L, EnumSet.of(InclusionUsuario.ALIMENTOS_FAVORITOS));
+
+        assertEquals("alice", result.getUsername());
+        assertEquals(List.of("Pasta"), result.getAlimentosFavoritos());
+        assertNull(result.getAlergias());
+        assertNull(result.getRutinaAlimentacion());
+        verify(usuarioRepository, never()).findRutinaAlimentacionById(any());
+        verify(usuarioRepository, never()).findAlergiasById(any());
+    }
+
+    @Test
+    void testObtenerUsuario_ConRutina_SoloConsultaLoPedido() {
+        stubDetalle(usuario1);
+
+        UsuarioDetalleDTO result = usuarioService.obtenerUsuario(1L, EnumSet.of(InclusionUsuario.RUTINA_EJERCICIO));
+
+        assertNotNull(result.getRutinaEjercicio());
+        assertNull(result.getRutinaAlimentacion());
+        assertNull(result.getAlimentosFavoritos());
+        verify(usuarioRepository, never()).findRutinaAlimentacionById(any());
+        verify(rutinaAlimentacionService, never()).convertirADTO(any());
+    }
+
+    @Test
+    void testObtenerUsuario_SoloLaRespuestaParcialOmiteLosNulos() throws Exception {
+        PerfilUsuario perfil = mock(PerfilUsuario.class);
+        when(perfil.getId()).thenReturn(1L);
+        when(usuarioRepository.findPerfilById(1L)).thenReturn(Optional.of(perfil));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        String completo = objectMapper.writeValueAsString(usuarioService.obtenerUsuario(1L));
+        String parcial = objectMapper.writeValueAsString(usuarioService.obtenerUsuario(1L, EnumSet.noneOf(InclusionUsuario.class)));
+
+        // Sin include el contrato no cambia: las partes vacías salen como null
+        assertTrue(completo.contains("\"rutinaEjercicio\":null"));
+        assertTrue(completo.contains("\"email\":null"));
+        assertFalse(parcial.contains("rutinaEjercicio"));
+        assertTrue(parcial.contains("\"id\":1"));
+    }
+
+    @Test
+    void testInclusionUsuario_Desde() {
+        assertEquals(EnumSet.allOf(InclusionUsuario.class), InclusionUsuario.desde(null));
+        assertEquals(EnumSet.noneOf(InclusionUsuario.class), InclusionUsuario.desde(List.of("")));
+        assertEquals(EnumSet.of(InclusionUsuario.RUTINA_ALIMENTACION, InclusionUsuario.ALERGIAS),
+                InclusionUsuario.desde(List.of("rutinaAlimentacion", " alergias")));
+        assertThrows(IllegalArgumentException.class, () -> InclusionUsuario.desde(List.of("password")));
     }
 
     @Test
     void testObtenerUsuario_NotFound() {
-        when(usuarioRepository.findById(99L)).thenReturn(Optional.empty());
+        when(usuarioRepository.findPerfilById(99L)).thenReturn(Optional.empty());
 
         RecursoNoEncontradoException exception = assertThrows(RecursoNoEncontradoException.class, () -> {
             usuarioService.obtenerUsuario(99L);
         });
 
         assertEquals("Usuario no encontrado con id 99", exception.getMessage());
-        verify(usuarioRepository, times(1)).findById(99L);
+        verify(usuarioRepository, times(1)).findPerfilById(99L);
+        verify(usuarioRepository, never()).findRutinaAlimentacionById(any());
     }
 
     @Test
@@ -214,6 +357,17 @@ public class UsuarioServiceTest {
         verify(usuarioRepository, times(1)).findByUsername("nonexistent");
     }
 
+    @Test
+    void testExisteUsernameYEmail_DelegaEnElIndice() {
+        when(usuarioExistenciaIndex.existeUsername("alice")).thenReturn(true);
+        when(usuarioExistenciaIndex.existeEmail("libre@example.com")).thenReturn(false);
+
+        assertTrue(usuarioService.existeUsername("alice"));
+        assertFalse(usuarioService.existeEmail("libre@example.com"));
+        verify(usuarioRepository, never()).findByUsername(anyString());
+        verify(usuarioRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void testCrearUsuario_Success() {
         CrearUsuarioDTO crearUsuarioDTO = new CrearUsuarioDTO();
@@ -254,6 +408,7 @@ public class UsuarioServiceTest {
         verify(usuarioRepository, times(1)).findByEmail(crearUsuarioDTO.getEmail());
         verify(usuarioRepository, times(1)).findByUsername(crearUsuarioDTO.getUsername());
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
+        verify(usuarioExistenciaIndex).registrar("carlosd", "carlos@example.com");
     }
 
     @Test
@@ -329,6 +484,8 @@ public class UsuarioServiceTest {
         assertEquals(26, result.getEdad());
         verify(usuarioRepository, times(1)).findById(1L);
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
+        // El email nuevo se añade al índice y el anterior queda pendiente de la reconstrucción
+        verify(usuarioExistenciaIndex).registrar(null, "alicia.smith@example.com");
     }
 
     @Test
@@ -384,6 +541,9 @@ public class UsuarioServiceTest {
 
         verify(usuarioRepository, times(1)).findById(1L);
         verify(usuarioRepository, times(1)).delete(usuario1);
+        verify(userDetailsCache).invalidate("alice");
+        // Sin época en caché el siguiente token del usuario borrado se compara con la BD y se rechaza
+        verify(epocaTokenCache).invalidate(1L);
     }
 
     @Test
@@ -475,4 +635,16 @@ public class UsuarioServiceTest {
 
 
 
+
+    private void stubDetalle(Usuario usuario) {
+        PerfilUsuario perfil = mock(PerfilUsuario.class);
+        when(perfil.getId()).thenReturn(usuario.getId());
+        when(perfil.getNombre()).thenReturn(usuario.getNombre());
+        when(perfil.getUsername()).thenReturn(usuario.getUsername());
+        when(usuarioRepository.findPerfilById(usuario.getId())).thenReturn(Optional.of(perfil));
+        when(usuarioRepository.findRutinaAlimentacionById(usuario.getId()))
+                .thenReturn(Optional.ofNullable(usuario.getRutinaAlimentacion()));
+        when(usuarioRepository.findRutinaEjercicioById(usuario.getId()))
+                .thenReturn(Optional.ofNullable(usuario.getRutinaEjercicio()));
+    }
 }
@@ -0,0 +1,28 @@
+package com.gestioneventos.cofira.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BusquedaTextoTest {
+
+    @Test
+    void testPatronContiene_MinusculasYSinEspacios() {
+        assertEquals("%pollo asado%", BusquedaTexto.patronContiene("  Pollo Asado "));
+    }
+
+    @Test
+    void testPatronContiene_EscapaComodines() {
+        assertEquals("%100\\% natural%", BusquedaTexto.patronContiene("100% natural"));
+        assertEquals("%a\\_b%", BusquedaTexto.patronContiene("a_b"));
+        assertEquals("%c:\\\\x%", BusquedaTexto.patronContiene("c:\\x"));
+    }
+
+    @Test
+    void testLimitar() {
+        assertEquals(BusquedaTexto.LIMITE_POR_DEFECTO, BusquedaTexto.limitar(null));
+        assertEquals(1, BusquedaTexto.limitar(0));
+        assertEquals(50, BusquedaTexto.limitar(50));
+        assertEquals(BusquedaTexto.LIMITE_MAXIMO, BusquedaTexto.limitar(10_000));
+    }
+}
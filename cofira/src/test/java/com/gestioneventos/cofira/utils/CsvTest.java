@@ -0,0 +1,27 @@
+package com.gestioneventos.cofira.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvTest {
+
+    @Test
+    void testParsearLinea_CamposSimplesYVacios() {
+        assertEquals(List.of("a", "", "c", ""), Csv.parsearLinea("a,,c,"));
+    }
+
+    @Test
+    void testParsearLinea_CamposEntreComillas() {
+        assertEquals(List.of("López, Bea", "dice \"hola\"", "x"),
+                Csv.parsearLinea("\"López, Bea\",\"dice \"\"hola\"\"\",x"));
+    }
+
+    @Test
+    void testParsearLinea_ComillasSinCerrar() {
+        assertThrows(IllegalArgumentException.class, () -> Csv.parsearLinea("\"abc,def"));
+    }
+}
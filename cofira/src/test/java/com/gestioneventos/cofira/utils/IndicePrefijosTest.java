@@ -0,0 +1,79 @@
+package com.gestioneventos.cofira.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndicePrefijosTest {
+
+    private IndicePrefijos indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndicePrefijos();
+        indice.indexar(1L, List.of("Plátano de Canarias"));
+        indice.indexar(2L, List.of("Pan integral"));
+        indice.indexar(3L, List.of("Piña"));
+    }
+
+    @Test
+    void testNormalizar_SinTildesNiMayusculas() {
+        assertEquals("platano pina", IndicePrefijos.normalizar("  PLÁTANO Piña "));
+        assertEquals(List.of("arroz", "3", "delicias"), IndicePrefijos.palabras("Arroz, 3 delicias!"));
+    }
+
+    @Test
+    void testBuscarPrefijo() {
+        assertEquals(Set.of(1L, 2L, 3L), indice.buscarPrefijo("p"));
+        assertEquals(Set.of(2L), indice.buscarPrefijo("pa"));
+        assertEquals(Set.of(1L), indice.buscarPrefijo("plat"));
+        assertEquals(Set.of(1L), indice.buscarPrefijo("canar"));
+        assertEquals(Set.of(3L), indice.buscarPrefijo("pina"));
+        assertTrue(indice.buscarPrefijo("x").isEmpty());
+    }
+
+    @Test
+    void testBuscarPrefijo_ConMaximo() {
+        // El rango se recorre en orden alfabético: "pan" (2) y "pina" (3) antes que "platano" (1)
+        assertEquals(Set.of(2L, 3L), indice.buscarPrefijo("p", 2));
+        assertEquals(Set.of(1L), indice.buscarPrefijo("plat", 5));
+    }
+
+    @Test
+    void testContarPrefijo() {
+        assertEquals(3, indice.contarPrefijo("p", 10));
+        assertEquals(1, indice.contarPrefijo("pa", 10));
+        assertEquals(0, indice.contarPrefijo("x", 10));
+        // Al pasar del máximo deja de contar
+        assertEquals(3, indice.contarPrefijo("p", 2));
+    }
+
+    @Test
+    void testTienePrefijo() {
+        assertTrue(indice.tienePrefijo(1L, "canar"));
+        assertTrue(indice.tienePrefijo(1L, "de"));
+        assertFalse(indice.tienePrefijo(2L, "plat"));
+        assertFalse(indice.tienePrefijo(99L, "p"));
+    }
+
+    @Test
+    void testIndexar_SustituyeLasPalabrasAnteriores() {
+        indice.indexar(2L, List.of("Pasta"));
+
+        assertEquals(Set.of(2L), indice.buscarPrefijo("past"));
+        assertTrue(indice.buscarPrefijo("integ").isEmpty());
+    }
+
+    @Test
+    void testEliminar() {
+        indice.eliminar(1L);
+
+        assertEquals(Set.of(2L, 3L), indice.buscarPrefijo("p"));
+        assertTrue(indice.buscarPrefijo("canarias").isEmpty());
+        indice.eliminar(99L);
+    }
+}